@@ -23,6 +23,13 @@ import org.apache.chemistry.opencmis.client.api.ObjectType;
 
 /**
  * Alfresco aspects interface.
+ * <p>
+ * The aspect ids are the ids the repository reports for the object.
+ * {@link #hasAspect(String)} checks these ids. An aspect whose type cannot be
+ * resolved, for example because its model is not deployed, is therefore
+ * reported by <code>hasAspect</code>. It is left out of
+ * {@link #getAspects()}, {@link #findAspect(String)} and
+ * {@link #getTypeWithAspects()}, because these need the aspect type.
  */
 public interface AlfrescoAspects {
 
@@ -41,7 +48,8 @@ public interface AlfrescoAspects {
 	 *            the aspect id
 	 * 
 	 * @return <code>true</code> if the aspect is applied, <code>false</code>
-	 *         otherwise
+	 *         otherwise; also <code>true</code> for applied aspects whose
+	 *         type cannot be resolved
 	 */
 	boolean hasAspect(String id);
 
@@ -58,7 +66,8 @@ public interface AlfrescoAspects {
 
 	/**
 	 * Returns all applied aspects. If no aspect is applied, an empty collection
-	 * is returned.
+	 * is returned. Applied aspects whose type cannot be resolved are not
+	 * included.
 	 * 
 	 * @return collection of the applied aspects
 	 */
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+
+/**
+ * Asynchronous aspect and property updates of a document or folder.
+ * <p>
+ * The updates run on the executor of the object factory, which runs at most
+ * {@link AlfrescoSessionParameter#ASYNC_THREADS} updates at the same time, on
+ * virtual threads if the JVM supports them. The updates of one object run one
+ * after another, in the order they were submitted. No object lock is held
+ * while the repository is called; the object is only locked while the result
+ * is applied to it. The futures complete with the changed object, which may
+ * be a new object, or exceptionally with the exception of the update.
+ */
+public interface AlfrescoAsyncAspects
+{
+    /**
+     * Adds aspects.
+     * 
+     * @param id
+     *            the aspect id or ids
+     * @return the future of the changed object
+     */
+    CompletableFuture<CmisObject> addAspectAsync(String... id);
+
+    /**
+     * Adds an aspect and sets aspect property values.
+     * 
+     * @param id
+     *            the aspect id
+     * @param properties
+     *            the aspect properties
+     * @return the future of the changed object
+     */
+    CompletableFuture<CmisObject> addAspectAsync(String id, Map<String, ?> properties);
+
+    /**
+     * Removes aspects.
+     * 
+     * @param id
+     *            the aspect id or ids
+     * @return the future of the changed object
+     */
+    CompletableFuture<CmisObject> removeAspectAsync(String... id);
+
+    /**
+     * Updates properties and refreshes the object.
+     * 
+     * @param properties
+     *            the object or aspect properties
+     * @return the future of the changed object
+     */
+    CompletableFuture<CmisObject> updatePropertiesAsync(Map<String, ?> properties);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client;
+
+import org.apache.chemistry.opencmis.commons.data.BulkUpdateObjectIdAndChangeToken;
+
+/**
+ * Receives the outcome of every object of a bulk aspect update. Calls are
+ * serialized, but may come from different threads.
+ */
+public interface AlfrescoBulkAspectListener
+{
+    /**
+     * Called when an object has been updated.
+     * 
+     * @param object
+     *            the object id, the new object id if the repository created a
+     *            new version, and the new change token
+     */
+    void onSuccess(BulkUpdateObjectIdAndChangeToken object);
+
+    /**
+     * Called when an object could not be updated.
+     * 
+     * @param object
+     *            the object as passed in
+     * @param exception
+     *            the reason
+     */
+    void onFailure(BulkUpdateObjectIdAndChangeToken object, Exception exception);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client;
+
+import java.util.Collection;
+
+import org.apache.chemistry.opencmis.commons.data.BulkUpdateObjectIdAndChangeToken;
+
+/**
+ * Adds or removes aspects on many objects.
+ * <p>
+ * The objects are read from the given iterable while the updates are running,
+ * so the input can be a stream over a large result set. CMIS 1.1 repositories
+ * are updated with batched <code>bulkUpdateProperties</code> calls, CMIS 1.0
+ * repositories with parallel single object updates. The objects are not
+ * loaded and the outcome of every object is reported to the listener.
+ */
+public interface AlfrescoBulkAspects
+{
+    /**
+     * Adds aspects to objects.
+     * 
+     * @param objects
+     *            the object ids and, optionally, their change tokens
+     * @param aspectIds
+     *            the ids of the aspects to add
+     * @param listener
+     *            receives the outcome of every object
+     */
+    void addAspects(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects, Collection<String> aspectIds,
+            AlfrescoBulkAspectListener listener);
+
+    /**
+     * Removes aspects from objects.
+     * 
+     * @param objects
+     *            the object ids and, optionally, their change tokens
+     * @param aspectIds
+     *            the ids of the aspects to remove
+     * @param listener
+     *            receives the outcome of every object
+     */
+    void removeAspects(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects, Collection<String> aspectIds,
+            AlfrescoBulkAspectListener listener);
+}
@@ -17,6 +17,13 @@ package org.alfresco.cmis.client;
 
 import org.apache.chemistry.opencmis.client.api.Document;
 
-public interface AlfrescoDocument extends Document, AlfrescoAspects
+public interface AlfrescoDocument extends Document, AlfrescoAspects, AlfrescoAsyncAspects, AlfrescoPrimitiveProperties
 {
+    /**
+     * Starts recording aspect and property changes that are sent to the
+     * repository with a single update.
+     * 
+     * @return a new edit session
+     */
+    AlfrescoEditSession edit();
 }
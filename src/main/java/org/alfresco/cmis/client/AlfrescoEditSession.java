@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client;
+
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+
+/**
+ * Records aspect and property changes of one object and sends them to the
+ * repository with a single update.
+ * <p>
+ * Changes are applied in the order they are recorded: adding an aspect and
+ * removing it again cancels out, and a later property value replaces an
+ * earlier one. An edit session is not thread-safe.
+ */
+public interface AlfrescoEditSession
+{
+    /**
+     * Records aspects to add.
+     * 
+     * @param id
+     *            the aspect id or ids
+     * @return this edit session
+     */
+    AlfrescoEditSession addAspect(String... id);
+
+    /**
+     * Records an aspect to add and aspect property values to set.
+     * 
+     * @param id
+     *            the aspect id
+     * @param properties
+     *            the aspect properties
+     * @return this edit session
+     */
+    AlfrescoEditSession addAspect(String id, Map<String, ?> properties);
+
+    /**
+     * Records aspects to remove.
+     * 
+     * @param id
+     *            the aspect id or ids
+     * @return this edit session
+     */
+    AlfrescoEditSession removeAspect(String... id);
+
+    /**
+     * Records property values to set.
+     * 
+     * @param properties
+     *            the object or aspect properties
+     * @return this edit session
+     */
+    AlfrescoEditSession updateProperties(Map<String, ?> properties);
+
+    /**
+     * Returns whether no changes have been recorded since the last flush.
+     * 
+     * @return <code>true</code> if there is nothing to flush
+     */
+    boolean isEmpty();
+
+    /**
+     * Sends all recorded changes with one update and refreshes the object.
+     * The edit session is empty afterwards and can be reused.
+     * 
+     * @return the changed object (which may be a new object)
+     */
+    CmisObject flush();
+}
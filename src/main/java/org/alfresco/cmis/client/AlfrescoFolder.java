@@ -17,6 +17,13 @@ package org.alfresco.cmis.client;
 
 import org.apache.chemistry.opencmis.client.api.Folder;
 
-public interface AlfrescoFolder extends Folder, AlfrescoAspects
+public interface AlfrescoFolder extends Folder, AlfrescoAspects, AlfrescoAsyncAspects, AlfrescoPrimitiveProperties
 {
+    /**
+     * Starts recording aspect and property changes that are sent to the
+     * repository with a single update.
+     * 
+     * @return a new edit session
+     */
+    AlfrescoEditSession edit();
 }
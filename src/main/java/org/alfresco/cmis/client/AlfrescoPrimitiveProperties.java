@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client;
+
+/**
+ * Reads numeric and boolean property values without boxing them.
+ * <p>
+ * Aspect properties of CMIS 1.0 repositories are stored in primitive form if
+ * the values fit. All other properties are read through the regular property
+ * values.
+ */
+public interface AlfrescoPrimitiveProperties
+{
+    /**
+     * Returns the first value of an integer property.
+     *
+     * @param id
+     *            the property id
+     * @param defaultValue
+     *            the value that is returned if the property is not set
+     * @return the property value
+     * @throws IllegalArgumentException
+     *             if the property is not an integer property or the value
+     *             doesn't fit into a <code>long</code>
+     */
+    long getPropertyAsLong(String id, long defaultValue);
+
+    /**
+     * Returns the first value of an integer or decimal property.
+     *
+     * @param id
+     *            the property id
+     * @param defaultValue
+     *            the value that is returned if the property is not set
+     * @return the property value
+     * @throws IllegalArgumentException
+     *             if the property is not a numeric property
+     */
+    double getPropertyAsDouble(String id, double defaultValue);
+
+    /**
+     * Returns the first value of a boolean property.
+     *
+     * @param id
+     *            the property id
+     * @param defaultValue
+     *            the value that is returned if the property is not set
+     * @return the property value
+     * @throws IllegalArgumentException
+     *             if the property is not a boolean property
+     */
+    boolean getPropertyAsBoolean(String id, boolean defaultValue);
+}
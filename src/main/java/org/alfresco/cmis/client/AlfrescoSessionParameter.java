@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client;
+
+/**
+ * Session parameters understood by the Alfresco object factory, in addition to
+ * the standard OpenCMIS session parameters.
+ */
+public final class AlfrescoSessionParameter
+{
+    private AlfrescoSessionParameter()
+    {
+    }
+
+    /**
+     * If set to <code>true</code>, documents and folders keep only the ids of
+     * their applied aspects and resolve the aspect types on first use.
+     * Default: <code>false</code>
+     */
+    public static final String LAZY_ASPECTS = "org.alfresco.cmis.client.aspects.lazy";
+
+    /**
+     * If set to <code>true</code>, shared aspect sets keep only a bitset over
+     * the session's aspect ordinals and answer membership tests with a bit test.
+     * Default: <code>false</code>
+     */
+    public static final String COMPACT_ASPECTS = "org.alfresco.cmis.client.aspects.compact";
+
+    /**
+     * If set to <code>true</code>, CMIS 1.0 aspect property values are kept as
+     * strings and converted when they are read for the first time. Conversion
+     * errors then surface on first read instead of when the object is loaded.
+     * Default: <code>false</code>
+     */
+    public static final String LAZY_PROPERTIES = "org.alfresco.cmis.client.properties.lazy";
+
+    /**
+     * If set to <code>true</code>, adding or removing aspects without property
+     * values applies the change to the document or folder instead of reloading
+     * it. The object is still reloaded if an added aspect defines a property
+     * with a default value, because the repository sets it. The properties of
+     * an added aspect without default values are not part of the object until
+     * the next refresh. Only the added aspects and their mandatory aspects are
+     * applied; aspects the repository adds on its own, for example by rules or
+     * behaviours, are visible after the next refresh.
+     * Default: <code>false</code>
+     */
+    public static final String LOCAL_ASPECT_UPDATES = "org.alfresco.cmis.client.aspects.local";
+
+    /**
+     * If set to <code>true</code>, property updates of documents and folders
+     * only send the values that differ from the loaded values. The aspect ids
+     * are only sent if the aspects change. Properties that are not loaded are
+     * always sent. If nothing changed, the repository is not called at all:
+     * the object is not refreshed even if a refresh is requested, and the
+     * change token is not checked, so a concurrent change of the object is
+     * not reported.
+     * Default: <code>false</code>
+     */
+    public static final String DIFF_UPDATES = "org.alfresco.cmis.client.updates.diff";
+
+    /**
+     * Maximum number of asynchronous aspect and property updates of a session
+     * that call the repository at the same time. The updates run on virtual
+     * threads if the JVM supports them and on daemon threads otherwise. Up to
+     * 1000 more updates wait for a thread, further updates run in the calling
+     * thread. The executor is never shut down.
+     * Default: 16
+     */
+    public static final String ASYNC_THREADS = "org.alfresco.cmis.client.async.threads";
+
+    /**
+     * If set to <code>true</code>, the complete aspect type hierarchy is
+     * fetched with one type descendants call when the session is first used,
+     * instead of resolving aspect types one by one as objects reference them.
+     * Default: <code>false</code>
+     */
+    public static final String PREFETCH_ASPECTS = "org.alfresco.cmis.client.aspects.prefetch";
+
+    /**
+     * Time in milliseconds an aspect id the repository does not know is
+     * remembered. Objects with such aspects are converted without them and
+     * without their properties. <code>0</code> disables the cache.
+     * Default: 300000 (5 minutes)
+     */
+    public static final String UNKNOWN_ASPECT_TTL = "org.alfresco.cmis.client.aspects.unknown.ttl";
+
+    /**
+     * Path of a type definition snapshot file. If the file exists and matches
+     * the repository, the aspect, document and folder types it contains are
+     * loaded when the session is first used instead of being fetched one by
+     * one. If {@link #PREFETCH_ASPECTS} is set and there is no matching
+     * snapshot, the aspect, document and folder type hierarchies are fetched
+     * and written to the file. Otherwise the snapshot is written by
+     * {@link org.alfresco.cmis.client.impl.AlfrescoObjectFactoryImpl#saveTypeSnapshot()},
+     * which writes the types the session knows at that time. Snapshots are
+     * only used if the repository reports a change log token.
+     */
+    public static final String TYPE_SNAPSHOT_FILE = "org.alfresco.cmis.client.types.snapshot";
+}
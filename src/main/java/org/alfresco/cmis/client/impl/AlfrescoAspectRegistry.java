@@ -0,0 +1,980 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.cmis.client.type.AlfrescoType;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.SessionImpl;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisInvalidArgumentException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+
+/**
+ * Session scoped registry of aspect types.
+ * <p>
+ * Every aspect id is resolved only once per session, even if many threads ask
+ * for it at the same time. Document and folder types that objects are
+ * converted with are kept as well, so that the complete set can be written to
+ * and restored from a {@link AlfrescoTypeSnapshot}. All cached types are
+ * dropped when the session cache is cleared. The registry also keeps an immutable index from property id to the aspect types
+ * that define the property, which turns aspect property lookups into a single
+ * map access, and assigns a dense ordinal to every resolved aspect type so
+ * that aspect sets can be encoded as bitsets. Ids that have not been resolved
+ * get no ordinal, so unknown ids from repository responses don't grow the
+ * ordinal table.
+ */
+public class AlfrescoAspectRegistry
+{
+    private static final ObjectType[] NO_TYPES = new ObjectType[0];
+
+    /** Default time in milliseconds an unknown aspect id is remembered. */
+    public static final long DEFAULT_UNKNOWN_ASPECT_TTL = 5 * 60 * 1000L;
+
+    /** Upper bound for the number of distinct aspect combinations kept in the intern pool. */
+    private static final int MAX_INTERNED_ASPECT_SETS = 4096;
+    private static final int MAX_PROPERTY_PLANS = 1024;
+    private static final int MAX_TYPE_IDS = 1024;
+
+    private final Session session;
+    private final ConcurrentMap<String, ObjectType> aspectTypes = new ConcurrentHashMap<String, ObjectType>();
+    private final ConcurrentMap<String, ObjectType> objectTypes = new ConcurrentHashMap<String, ObjectType>();
+    private final ConcurrentMap<String, FutureTask<ObjectType>> pendingAspectTypes = new ConcurrentHashMap<String, FutureTask<ObjectType>>();
+    private final ConcurrentMap<String, FutureTask<ObjectType>> pendingObjectTypes = new ConcurrentHashMap<String, FutureTask<ObjectType>>();
+
+    private final ConcurrentMap<String, Long> unknownAspects = new ConcurrentHashMap<String, Long>();
+    private final long unknownAspectTtl;
+    private final AtomicLong unknownAspectHits = new AtomicLong();
+    private final AtomicLong unknownAspectMisses = new AtomicLong();
+
+    private final Object indexLock = new Object();
+    private volatile Map<String, ObjectType[]> propertyIndex = Collections.emptyMap();
+
+    private final ConcurrentMap<String, AlfrescoTypeId> typeIds = new ConcurrentHashMap<String, AlfrescoTypeId>();
+    private final ConcurrentMap<String, AlfrescoPropertyPlan> propertyPlans = new ConcurrentHashMap<String, AlfrescoPropertyPlan>();
+    private final ConcurrentMap<String, AlfrescoPropertyConverter<?>> propertyConverters = new ConcurrentHashMap<String, AlfrescoPropertyConverter<?>>();
+
+    private final ConcurrentMap<List<String>, AlfrescoAspectSet> aspectSets = new ConcurrentHashMap<List<String>, AlfrescoAspectSet>();
+    private final boolean compactAspectSets;
+
+    private final ConcurrentMap<String, Integer> aspectOrdinals = new ConcurrentHashMap<String, Integer>();
+    private final Object ordinalLock = new Object();
+    private volatile String[] ordinalIds = new String[64];
+    private int nextOrdinal = 0;
+
+    private final Object cacheLock = new Object();
+    private volatile Object sessionCache;
+
+    public AlfrescoAspectRegistry(Session session)
+    {
+        this(session, false);
+    }
+
+    /**
+     * Creates a registry.
+     *
+     * @param session the session
+     * @param compactAspectSets if <code>true</code>, aspect sets keep only their
+     *            bitset for membership tests
+     */
+    public AlfrescoAspectRegistry(Session session, boolean compactAspectSets)
+    {
+        this(session, compactAspectSets, DEFAULT_UNKNOWN_ASPECT_TTL);
+    }
+
+    /**
+     * Creates a registry.
+     *
+     * @param session the session
+     * @param compactAspectSets if <code>true</code>, aspect sets keep only their
+     *            bitset for membership tests
+     * @param unknownAspectTtl time in milliseconds an aspect id the repository
+     *            does not know is remembered, <code>0</code> disables this
+     */
+    public AlfrescoAspectRegistry(Session session, boolean compactAspectSets, long unknownAspectTtl)
+    {
+        this.session = session;
+        this.compactAspectSets = compactAspectSets;
+        this.unknownAspectTtl = TimeUnit.MILLISECONDS.toNanos(Math.max(0, unknownAspectTtl));
+    }
+
+    /**
+     * Returns the aspect registry of the given session.
+     *
+     * @param session the session
+     * @return the registry owned by the session's object factory, or a new
+     *         unshared registry if the session does not use the Alfresco object factory
+     */
+    public static AlfrescoAspectRegistry get(Session session)
+    {
+        ObjectFactory objectFactory = session.getObjectFactory();
+        if (objectFactory instanceof AlfrescoObjectFactoryImpl)
+        {
+            return ((AlfrescoObjectFactoryImpl) objectFactory).getAspectRegistry();
+        }
+
+        return new AlfrescoAspectRegistry(session);
+    }
+
+    /**
+     * Returns the aspect type with the given id, fetching it from the repository
+     * only the first time it is requested.
+     *
+     * @param aspectId the aspect id
+     * @return the aspect type
+     */
+    public ObjectType getAspectType(String aspectId)
+    {
+        checkSessionCache();
+
+        ObjectType type = aspectTypes.get(aspectId);
+        if (type == null)
+        {
+            if (isUnknownAspect(aspectId))
+            {
+                unknownAspectHits.incrementAndGet();
+                throw new CmisObjectNotFoundException("Unknown aspect: " + aspectId);
+            }
+
+            type = fetch(aspectId, true);
+        }
+
+        return type;
+    }
+
+    /**
+     * Returns the aspect type with the given id, or <code>null</code> if the
+     * repository does not know the aspect, for example because its model has
+     * been undeployed. Unknown ids are remembered for a limited time so that
+     * they do not cause a failing repository call for every object.
+     *
+     * @param aspectId the aspect id
+     * @return the aspect type or <code>null</code>
+     */
+    public ObjectType findAspectType(String aspectId)
+    {
+        checkSessionCache();
+
+        ObjectType type = aspectTypes.get(aspectId);
+        if (type != null)
+        {
+            return type;
+        }
+
+        // known misses don't throw
+        if (isUnknownAspect(aspectId))
+        {
+            unknownAspectHits.incrementAndGet();
+            return null;
+        }
+
+        try
+        {
+            return fetch(aspectId, true);
+        } catch (CmisObjectNotFoundException e)
+        {
+            return null;
+        } catch (CmisInvalidArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the document or folder type with the given id, fetching it from
+     * the repository only the first time it is requested.
+     *
+     * @param typeId the type id
+     * @return the object type
+     */
+    public ObjectType getObjectType(String typeId)
+    {
+        checkSessionCache();
+
+        ObjectType type = objectTypes.get(typeId);
+        if (type == null)
+        {
+            type = aspectTypes.get(typeId);
+        }
+        if (type == null)
+        {
+            type = fetch(typeId, false);
+        }
+
+        return type;
+    }
+
+    /**
+     * Fetches and registers a type. Concurrent requests for the same type id
+     * wait for the first one and share its result, so that a cold registry
+     * issues at most one repository call per type.
+     */
+    private ObjectType fetch(final String typeId, final boolean aspect)
+    {
+        ConcurrentMap<String, FutureTask<ObjectType>> pending = (aspect ? pendingAspectTypes : pendingObjectTypes);
+
+        FutureTask<ObjectType> task = pending.get(typeId);
+        if (task == null)
+        {
+            FutureTask<ObjectType> newTask = new FutureTask<ObjectType>(new Callable<ObjectType>()
+            {
+                public ObjectType call()
+                {
+                    // another request may have completed in the meantime
+                    ObjectType known = (aspect ? aspectTypes.get(typeId) : objectTypes.get(typeId));
+                    if (known != null)
+                    {
+                        return known;
+                    }
+
+                    if (!aspect)
+                    {
+                        return registerObjectType(session.getTypeDefinition(typeId));
+                    }
+
+                    try
+                    {
+                        return register(session.getTypeDefinition(typeId));
+                    } catch (CmisObjectNotFoundException e)
+                    {
+                        addUnknownAspect(typeId);
+                        throw e;
+                    } catch (CmisInvalidArgumentException e)
+                    {
+                        addUnknownAspect(typeId);
+                        throw e;
+                    }
+                }
+            });
+
+            task = pending.putIfAbsent(typeId, newTask);
+            if (task == null)
+            {
+                task = newTask;
+                try
+                {
+                    newTask.run();
+                } finally
+                {
+                    pending.remove(typeId, newTask);
+                }
+            }
+        }
+
+        try
+        {
+            return task.get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new CmisRuntimeException("Interrupted while fetching type " + typeId, e);
+        } catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new CmisRuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    private boolean isUnknownAspect(String aspectId)
+    {
+        Long expires = unknownAspects.get(aspectId);
+        if (expires == null)
+        {
+            return false;
+        }
+
+        if (System.nanoTime() - expires.longValue() >= 0)
+        {
+            unknownAspects.remove(aspectId, expires);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns how long an unknown aspect id is remembered.
+     */
+    long getUnknownAspectTtlNanos()
+    {
+        return unknownAspectTtl;
+    }
+
+    private void addUnknownAspect(String aspectId)
+    {
+        unknownAspectMisses.incrementAndGet();
+        if (unknownAspectTtl > 0)
+        {
+            unknownAspects.put(aspectId, Long.valueOf(System.nanoTime() + unknownAspectTtl));
+        }
+    }
+
+    /**
+     * Returns how many aspect lookups have been answered from the unknown
+     * aspect cache without asking the repository.
+     *
+     * @return the number of hits
+     */
+    public long getUnknownAspectHits()
+    {
+        return unknownAspectHits.get();
+    }
+
+    /**
+     * Returns how many aspect lookups failed in the repository because the
+     * aspect is unknown.
+     *
+     * @return the number of failed repository lookups
+     */
+    public long getUnknownAspectMisses()
+    {
+        return unknownAspectMisses.get();
+    }
+
+    /**
+     * Returns the number of aspect ids currently remembered as unknown,
+     * including entries that have expired but not been evicted yet.
+     *
+     * @return the number of unknown aspect ids
+     */
+    public int getUnknownAspectCount()
+    {
+        return unknownAspects.size();
+    }
+
+    /**
+     * Forgets all unknown aspect ids, for example after a model has been
+     * deployed.
+     */
+    public void clearUnknownAspects()
+    {
+        unknownAspects.clear();
+    }
+
+    /**
+     * Drops the cached types if the session cache has been cleared since the
+     * last check, so that types redeployed in the repository are fetched
+     * again. {@link org.apache.chemistry.opencmis.client.api.Session#clear()}
+     * replaces the session's object cache, which is used as the marker.
+     */
+    private void checkSessionCache()
+    {
+        if (!(session instanceof SessionImpl))
+        {
+            return;
+        }
+
+        Object cache = ((SessionImpl) session).getCache();
+        if (cache == sessionCache)
+        {
+            return;
+        }
+
+        synchronized (cacheLock)
+        {
+            if (cache != sessionCache)
+            {
+                if (sessionCache != null)
+                {
+                    clearTypes();
+                }
+                sessionCache = cache;
+            }
+        }
+    }
+
+    /**
+     * Forgets all types and everything derived from them. Aspect ordinals and
+     * parsed type ids are kept, they don't depend on the type definitions.
+     * Objects that have already been converted keep their aspect sets.
+     */
+    public void clearTypes()
+    {
+        aspectTypes.clear();
+        objectTypes.clear();
+        unknownAspects.clear();
+        propertyPlans.clear();
+        propertyConverters.clear();
+        aspectSets.clear();
+
+        synchronized (indexLock)
+        {
+            propertyIndex = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Adds a non-aspect type to the registry.
+     *
+     * @param type the object type
+     * @return the registered type, which is the already known instance if the
+     *         type id has been registered before
+     */
+    public ObjectType registerObjectType(ObjectType type)
+    {
+        if (type == null)
+        {
+            return null;
+        }
+
+        ObjectType known = objectTypes.putIfAbsent(type.getId(), type);
+        return known == null ? type : known;
+    }
+
+    /**
+     * Returns all types known to this registry.
+     *
+     * @return the aspect types followed by the document and folder types
+     */
+    public List<ObjectType> getRegisteredTypes()
+    {
+        List<ObjectType> result = new ArrayList<ObjectType>(aspectTypes.size() + objectTypes.size());
+        result.addAll(aspectTypes.values());
+        result.addAll(objectTypes.values());
+        return result;
+    }
+
+    /**
+     * Resolves a list of aspect ids.
+     *
+     * @param aspectIds the aspect ids
+     * @return the aspect types keyed by id, in the order of the given ids;
+     *         aspects unknown to the repository are left out
+     */
+    public Map<String, ObjectType> getAspectTypes(Collection<String> aspectIds)
+    {
+        if (aspectIds == null || aspectIds.isEmpty())
+        {
+            return Collections.emptyMap();
+        }
+
+        Map<String, ObjectType> result = new LinkedHashMap<String, ObjectType>();
+        for (String aspectId : aspectIds)
+        {
+            ObjectType type = findAspectType(aspectId);
+            if (type != null)
+            {
+                result.put(type.getId(), type);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds an aspect type to the registry and indexes its property definitions.
+     *
+     * @param type the aspect type
+     * @return the registered type, which is the already known instance if the
+     *         type id has been registered before
+     */
+    public ObjectType register(ObjectType type)
+    {
+        if (type == null)
+        {
+            return null;
+        }
+
+        ObjectType known = aspectTypes.putIfAbsent(type.getId(), type);
+        if (known != null)
+        {
+            return known;
+        }
+
+        index(Collections.singletonList(type));
+
+        return type;
+    }
+
+    /**
+     * Adds a batch of aspect types to the registry. The property index is
+     * rebuilt once for the whole batch.
+     *
+     * @param types the aspect types
+     */
+    public void registerAll(Collection<? extends ObjectType> types)
+    {
+        List<ObjectType> added = new ArrayList<ObjectType>(types.size());
+        for (ObjectType type : types)
+        {
+            if (type != null && aspectTypes.putIfAbsent(type.getId(), type) == null)
+            {
+                added.add(type);
+            }
+        }
+
+        index(added);
+    }
+
+    private void index(List<ObjectType> types)
+    {
+        synchronized (indexLock)
+        {
+            Map<String, ObjectType[]> newIndex = null;
+            for (ObjectType type : types)
+            {
+                Map<String, PropertyDefinition<?>> propertyDefinitions = type.getPropertyDefinitions();
+                if (propertyDefinitions == null || propertyDefinitions.isEmpty())
+                {
+                    continue;
+                }
+
+                if (newIndex == null)
+                {
+                    newIndex = new HashMap<String, ObjectType[]>(propertyIndex);
+                }
+
+                for (String propertyId : propertyDefinitions.keySet())
+                {
+                    ObjectType[] owners = newIndex.get(propertyId);
+                    if (owners == null)
+                    {
+                        owners = NO_TYPES;
+                    }
+
+                    ObjectType[] newOwners = new ObjectType[owners.length + 1];
+                    System.arraycopy(owners, 0, newOwners, 0, owners.length);
+                    newOwners[owners.length] = type;
+                    newIndex.put(propertyId, newOwners);
+                }
+            }
+
+            if (newIndex != null)
+            {
+                propertyIndex = Collections.unmodifiableMap(newIndex);
+            }
+        }
+    }
+
+    /**
+     * Finds the applied aspect that defines the given property.
+     *
+     * @param aspects the applied aspects keyed by id; all of them must have been
+     *            resolved through this registry
+     * @param propertyId the property id
+     * @return the aspect type, or <code>null</code> if none of the given aspects
+     *         defines the property
+     */
+    public ObjectType findAspect(Map<String, ObjectType> aspects, String propertyId)
+    {
+        if (aspects == null || propertyId == null)
+        {
+            return null;
+        }
+
+        ObjectType[] owners = propertyIndex.get(propertyId);
+        if (owners == null)
+        {
+            return null;
+        }
+
+        for (ObjectType owner : owners)
+        {
+            ObjectType type = aspects.get(owner.getId());
+            if (type != null)
+            {
+                return type;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the compiled converter for a property of an aspect.
+     *
+     * @param aspectType the aspect type, must have been resolved through this
+     *            registry
+     * @param propertyId the property id
+     * @return the converter, or <code>null</code> if the aspect does not define
+     *         the property
+     */
+    public AlfrescoPropertyConverter<?> getPropertyConverter(ObjectType aspectType, String propertyId)
+    {
+        checkSessionCache();
+
+        String key = aspectType.getId() + '\u0000' + propertyId;
+        AlfrescoPropertyConverter<?> converter = propertyConverters.get(key);
+        if (converter == null)
+        {
+            PropertyDefinition<?> propertyDefinition = aspectType.getPropertyDefinitions().get(propertyId);
+            if (propertyDefinition == null)
+            {
+                return null;
+            }
+
+            converter = AlfrescoPropertyConverter.create(aspectType, propertyDefinition);
+            AlfrescoPropertyConverter<?> existing = propertyConverters.putIfAbsent(key, converter);
+            if (existing != null)
+            {
+                converter = existing;
+            }
+        }
+
+        return converter;
+    }
+
+    /**
+     * Returns the shared, canonical aspect set for the given aspect ids.
+     *
+     * @param aspectIds the aspect ids, in any order
+     * @return the interned aspect set
+     */
+    public AlfrescoAspectSet internAspectSet(Collection<String> aspectIds)
+    {
+        return intern(AlfrescoAspectSet.canonicalize(aspectIds));
+    }
+
+    /**
+     * Returns the shared, canonical aspect set for the first
+     * <code>length</code> ids of the given array. The array is not modified.
+     *
+     * @param aspectIds the aspect ids, in any order
+     * @param length the number of ids
+     * @return the interned aspect set
+     */
+    AlfrescoAspectSet internAspectSet(String[] aspectIds, int length)
+    {
+        return intern(AlfrescoAspectSet.canonicalize(aspectIds, length));
+    }
+
+    private AlfrescoAspectSet intern(String[] canonicalIds)
+    {
+        // look up by the sorted ids, so a hit doesn't build a candidate set
+        List<String> key = Arrays.asList(canonicalIds);
+        AlfrescoAspectSet interned = aspectSets.get(key);
+        if (interned != null)
+        {
+            return interned;
+        }
+
+        AlfrescoAspectSet candidate = AlfrescoAspectSet.create(this, canonicalIds, compactAspectSets);
+        if (aspectSets.size() >= MAX_INTERNED_ASPECT_SETS)
+        {
+            // pool is full, don't let unusual combinations grow it any further
+            return candidate;
+        }
+
+        interned = aspectSets.putIfAbsent(key, candidate);
+        return interned == null ? candidate : interned;
+    }
+
+    /**
+     * Returns the parsed form of a raw <code>cmis:objectTypeId</code> value,
+     * parsing it only the first time it is seen.
+     *
+     * @param value the object type id, optionally followed by comma separated
+     *            aspect ids
+     * @return the interned type id
+     */
+    public AlfrescoTypeId parseTypeId(String value)
+    {
+        AlfrescoTypeId typeId = typeIds.get(value);
+        if (typeId != null)
+        {
+            return typeId;
+        }
+
+        return internTypeId(AlfrescoTypeId.parse(value));
+    }
+
+    /**
+     * Returns the canonical instance of the given type id.
+     */
+    AlfrescoTypeId internTypeId(AlfrescoTypeId typeId)
+    {
+        if (typeIds.size() >= MAX_TYPE_IDS)
+        {
+            // cache is full, don't let unusual combinations grow it any further
+            AlfrescoTypeId existing = typeIds.get(typeId.getValue());
+            return existing == null ? typeId : existing;
+        }
+
+        AlfrescoTypeId existing = typeIds.putIfAbsent(typeId.getValue(), typeId);
+        return existing == null ? typeId : existing;
+    }
+
+    /**
+     * Returns the partition plan for a raw <code>cmis:objectTypeId</code>
+     * value, parsing and resolving it only the first time it is seen.
+     *
+     * @param typeIds the object type id, optionally followed by comma separated
+     *            aspect ids
+     * @return the plan
+     */
+    public AlfrescoPropertyPlan getPropertyPlan(String typeIds)
+    {
+        AlfrescoPropertyPlan plan = propertyPlans.get(typeIds);
+        if (plan != null)
+        {
+            return plan;
+        }
+
+        plan = AlfrescoPropertyPlan.create(this, typeIds);
+        if (propertyPlans.size() >= MAX_PROPERTY_PLANS)
+        {
+            // cache is full, don't let unusual combinations grow it any further
+            return plan;
+        }
+
+        AlfrescoPropertyPlan existing = propertyPlans.putIfAbsent(typeIds, plan);
+        return existing == null ? plan : existing;
+    }
+
+    /**
+     * Predicts the aspects an object of the given type has after the given
+     * aspects have been applied, without asking the repository. The result
+     * contains the current aspects, the added aspects and the mandatory aspect
+     * closures of the type and of all added aspects.
+     *
+     * @param type the object type
+     * @param current the current aspects, may be <code>null</code> for a new
+     *            object
+     * @param addedAspectIds the ids of the aspects to add, may be
+     *            <code>null</code>
+     * @return the interned expected aspect set
+     */
+    public AlfrescoAspectSet predictAspectSet(ObjectType type, AlfrescoAspectSet current, Collection<String> addedAspectIds)
+    {
+        Set<String> ids = new LinkedHashSet<String>();
+        if (current != null)
+        {
+            ids.addAll(current.getIds());
+        }
+        if (type instanceof AlfrescoType)
+        {
+            ids.addAll(((AlfrescoType) type).getMandatoryAspectClosure());
+        }
+        if (addedAspectIds != null)
+        {
+            for (String aspectId : addedAspectIds)
+            {
+                ids.add(aspectId);
+
+                ObjectType aspectType = findAspectType(aspectId);
+                if (aspectType instanceof AlfrescoType)
+                {
+                    ids.addAll(((AlfrescoType) aspectType).getMandatoryAspectClosure());
+                }
+            }
+        }
+
+        return internAspectSet(ids);
+    }
+
+    /**
+     * Returns the aspect set with all aspects of both given sets.
+     *
+     * @param a the first set
+     * @param b the second set
+     * @return the interned union
+     */
+    public AlfrescoAspectSet union(AlfrescoAspectSet a, AlfrescoAspectSet b)
+    {
+        long[] aBits = a.getBits();
+        long[] bBits = b.getBits();
+        if (aBits == null || bBits == null)
+        {
+            // ids without ordinal
+            List<String> ids = new ArrayList<String>(a.getIds());
+            ids.addAll(b.getIds());
+            return internAspectSet(ids);
+        }
+
+        long[] result = new long[Math.max(aBits.length, bBits.length)];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = (i < aBits.length ? aBits[i] : 0L) | (i < bBits.length ? bBits[i] : 0L);
+        }
+
+        return internAspectSet(toAspectIds(result));
+    }
+
+    /**
+     * Returns the aspect set with the aspects of <code>a</code> that are not in
+     * <code>b</code>.
+     *
+     * @param a the set to remove from
+     * @param b the aspects to remove
+     * @return the interned difference
+     */
+    public AlfrescoAspectSet difference(AlfrescoAspectSet a, AlfrescoAspectSet b)
+    {
+        long[] aBits = a.getBits();
+        long[] bBits = b.getBits();
+        if (aBits == null || bBits == null)
+        {
+            // ids without ordinal
+            List<String> ids = new ArrayList<String>(a.size());
+            for (String id : a.getIds())
+            {
+                if (!b.contains(id))
+                {
+                    ids.add(id);
+                }
+            }
+            return internAspectSet(ids);
+        }
+
+        long[] result = new long[aBits.length];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = aBits[i] & ~(i < bBits.length ? bBits[i] : 0L);
+        }
+
+        return internAspectSet(toAspectIds(result));
+    }
+
+    /**
+     * Selects the objects that have all the given aspects applied.
+     *
+     * @param objects the objects to filter
+     * @param aspectIds the required aspect ids
+     * @return the matching objects, in iteration order
+     */
+    public <T extends CmisObject> List<T> selectWithAllAspects(Iterable<T> objects, Collection<String> aspectIds)
+    {
+        AlfrescoAspectSet required = internAspectSet(aspectIds);
+        List<T> result = new ArrayList<T>();
+
+        for (T object : objects)
+        {
+            AlfrescoAspectSet aspects = getAspectSet(object);
+            if (aspects != null && aspects.containsAll(required))
+            {
+                result.add(object);
+            }
+        }
+
+        return result;
+    }
+
+    private static AlfrescoAspectSet getAspectSet(CmisObject object)
+    {
+        if (object instanceof AlfrescoDocumentImpl)
+        {
+            return ((AlfrescoDocumentImpl) object).getAspectSet();
+        }
+        else if (object instanceof AlfrescoFolderImpl)
+        {
+            return ((AlfrescoFolderImpl) object).getAspectSet();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the ordinal of the given aspect id, assigning the next free
+     * ordinal if the id has not been seen before and its aspect type has been
+     * resolved.
+     *
+     * @param aspectId the aspect id
+     * @return the aspect ordinal, or -1 if the aspect type has not been
+     *         resolved
+     */
+    int getAspectOrdinal(String aspectId)
+    {
+        Integer ordinal = aspectOrdinals.get(aspectId);
+        if (ordinal != null)
+        {
+            return ordinal.intValue();
+        }
+
+        if (!aspectTypes.containsKey(aspectId))
+        {
+            return -1;
+        }
+
+        synchronized (ordinalLock)
+        {
+            ordinal = aspectOrdinals.get(aspectId);
+            if (ordinal == null)
+            {
+                String[] ids = ordinalIds;
+                if (nextOrdinal == ids.length)
+                {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[nextOrdinal] = aspectId;
+                ordinalIds = ids;
+
+                ordinal = Integer.valueOf(nextOrdinal++);
+                aspectOrdinals.put(aspectId, ordinal);
+            }
+
+            return ordinal.intValue();
+        }
+    }
+
+    /**
+     * Returns the ordinal of the given aspect id without assigning a new one.
+     *
+     * @param aspectId the aspect id
+     * @return the aspect ordinal, or -1 if the id is unknown
+     */
+    int findAspectOrdinal(String aspectId)
+    {
+        Integer ordinal = (aspectId == null ? null : aspectOrdinals.get(aspectId));
+        return ordinal == null ? -1 : ordinal.intValue();
+    }
+
+    private List<String> toAspectIds(long[] bits)
+    {
+        String[] ids = ordinalIds;
+        List<String> result = new ArrayList<String>();
+        for (int word = 0; word < bits.length; word++)
+        {
+            long w = bits[word];
+            while (w != 0L)
+            {
+                int ordinal = (word << 6) + Long.numberOfTrailingZeros(w);
+                result.add(ids[ordinal]);
+                w &= w - 1;
+            }
+        }
+
+        return result;
+    }
+}
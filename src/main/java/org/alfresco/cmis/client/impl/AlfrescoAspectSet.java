@@ -0,0 +1,499 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+
+/**
+ * Immutable, canonically ordered set of applied aspect ids.
+ * <p>
+ * Instances are interned by the {@link AlfrescoAspectRegistry}, so objects with
+ * the same aspects share one set, its resolved aspect types, its merged
+ * type-with-aspects property definitions and its compiled property converters.
+ * Each set also
+ * carries a bitset over the session's aspect ordinals, which makes set algebra
+ * across many objects a matter of word-wide bit operations. In compact mode the
+ * bitset is the only membership structure. Only resolved aspect types have an
+ * ordinal; until all aspects of a set are resolved, the set has no bitset and
+ * falls back to its sorted id array.
+ * <p>
+ * A resolution that misses aspects unknown to the repository is kept as long
+ * as the registry remembers unknown aspects, and then repeated.
+ */
+public final class AlfrescoAspectSet
+{
+    private static final String[] NO_IDS = new String[0];
+
+    private final AlfrescoAspectRegistry registry;
+    private final String[] ids;
+    private volatile long[] bits;
+    private final Set<String> idSet;
+    private final int hash;
+    private volatile Resolution resolution;
+
+    private AlfrescoAspectSet(AlfrescoAspectRegistry registry, String[] ids, boolean compact)
+    {
+        this.registry = registry;
+        this.ids = ids;
+        this.hash = Arrays.hashCode(ids);
+
+        this.bits = computeBits();
+        this.idSet = compact ? null : Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(ids)));
+    }
+
+    /**
+     * Creates a canonical (sorted, duplicate free) aspect set. Use
+     * {@link AlfrescoAspectRegistry#internAspectSet(Collection)} to get a shared
+     * instance.
+     *
+     * @param registry the registry that assigns the aspect ordinals
+     * @param aspectIds the aspect ids
+     * @param compact if <code>true</code>, membership tests use the bitset only
+     * @return the aspect set
+     */
+    static AlfrescoAspectSet create(AlfrescoAspectRegistry registry, Collection<String> aspectIds, boolean compact)
+    {
+        return create(registry, canonicalize(aspectIds), compact);
+    }
+
+    /**
+     * Creates an aspect set from ids returned by one of the
+     * <code>canonicalize</code> methods. The set takes ownership of the array.
+     */
+    static AlfrescoAspectSet create(AlfrescoAspectRegistry registry, String[] canonicalIds, boolean compact)
+    {
+        return new AlfrescoAspectSet(registry, canonicalIds, compact);
+    }
+
+    /**
+     * Returns the given ids sorted and without duplicates and
+     * <code>null</code> values.
+     */
+    static String[] canonicalize(Collection<String> aspectIds)
+    {
+        if (aspectIds == null || aspectIds.isEmpty())
+        {
+            return NO_IDS;
+        }
+
+        TreeSet<String> sorted = new TreeSet<String>();
+        for (String id : aspectIds)
+        {
+            if (id != null)
+            {
+                sorted.add(id);
+            }
+        }
+
+        return sorted.toArray(new String[sorted.size()]);
+    }
+
+    /**
+     * Returns the first <code>length</code> ids of the given array sorted and
+     * without duplicates and <code>null</code> values. The array is not
+     * modified.
+     */
+    static String[] canonicalize(String[] aspectIds, int length)
+    {
+        String[] sorted = new String[length];
+        int count = 0;
+        for (int i = 0; i < length; i++)
+        {
+            if (aspectIds[i] != null)
+            {
+                sorted[count++] = aspectIds[i];
+            }
+        }
+
+        if (count == 0)
+        {
+            return NO_IDS;
+        }
+
+        Arrays.sort(sorted, 0, count);
+
+        int unique = 1;
+        for (int i = 1; i < count; i++)
+        {
+            if (!sorted[i].equals(sorted[unique - 1]))
+            {
+                sorted[unique++] = sorted[i];
+            }
+        }
+
+        return unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique);
+    }
+
+    public boolean contains(String aspectId)
+    {
+        if (idSet != null)
+        {
+            return idSet.contains(aspectId);
+        }
+
+        long[] b = getBits();
+        if (b == null)
+        {
+            // ids without ordinal, the ids are sorted
+            return aspectId != null && Arrays.binarySearch(ids, aspectId) >= 0;
+        }
+
+        int ordinal = registry.findAspectOrdinal(aspectId);
+        return ordinal >= 0 && isSet(b, ordinal);
+    }
+
+    /**
+     * Returns whether this set contains all aspects of the given set.
+     *
+     * @param other the other set
+     * @return <code>true</code> if the other set is a subset of this set
+     */
+    public boolean containsAll(AlfrescoAspectSet other)
+    {
+        long[] bits = getBits();
+        long[] otherBits = other.getBits();
+        if (bits == null || otherBits == null)
+        {
+            for (String id : other.ids)
+            {
+                if (!contains(id))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (int i = 0; i < otherBits.length; i++)
+        {
+            long mine = (i < bits.length ? bits[i] : 0L);
+            if ((mine & otherBits[i]) != otherBits[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether this set contains at least one aspect of the given set.
+     *
+     * @param other the other set
+     * @return <code>true</code> if both sets intersect
+     */
+    public boolean containsAny(AlfrescoAspectSet other)
+    {
+        long[] bits = getBits();
+        long[] otherBits = other.getBits();
+        if (bits == null || otherBits == null)
+        {
+            for (String id : other.ids)
+            {
+                if (contains(id))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int length = Math.min(bits.length, otherBits.length);
+        for (int i = 0; i < length; i++)
+        {
+            if ((bits[i] & otherBits[i]) != 0L)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isEmpty()
+    {
+        return ids.length == 0;
+    }
+
+    public int size()
+    {
+        return ids.length;
+    }
+
+    /**
+     * Returns the aspect ids in canonical order.
+     *
+     * @return unmodifiable list of aspect ids
+     */
+    public List<String> getIds()
+    {
+        return Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    /**
+     * Returns whether the aspect types of this set have been resolved.
+     *
+     * @return <code>true</code> if {@link #getTypes()} will not access the
+     *         registry
+     */
+    public boolean isResolved()
+    {
+        Resolution result = resolution;
+        return result != null && !result.isExpired();
+    }
+
+    /**
+     * Returns the aspect types of this set, resolving them once through the
+     * registry.
+     *
+     * @return unmodifiable map of aspect types keyed by id, without aspects
+     *         the repository does not know
+     */
+    public Map<String, ObjectType> getTypes()
+    {
+        return resolve().types;
+    }
+
+    private Resolution resolve()
+    {
+        Resolution result = resolution;
+        if (result == null || result.isExpired())
+        {
+            Map<String, ObjectType> types = Collections.unmodifiableMap(registry.getAspectTypes(Arrays.asList(ids)));
+            if (types.size() == ids.length)
+            {
+                result = new Resolution(types, false, 0);
+                resolution = result;
+            } else
+            {
+                // unknown aspects may be deployed later
+                long ttl = registry.getUnknownAspectTtlNanos();
+                result = new Resolution(types, true, System.nanoTime() + ttl);
+                if (ttl > 0)
+                {
+                    resolution = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the property definitions of the given type merged with the
+     * property definitions of all aspects in this set. The merged map is built
+     * once per type id and shared by all objects with this type and aspect set.
+     *
+     * @param type the object type
+     * @return unmodifiable map of property definitions
+     */
+    public Map<String, PropertyDefinition<?>> getPropertyDefinitions(ObjectType type)
+    {
+        Resolution current = resolve();
+        Map<String, PropertyDefinition<?>> result = current.mergedDefinitions.get(type.getId());
+        if (result == null)
+        {
+            Map<String, PropertyDefinition<?>> merged = new HashMap<String, PropertyDefinition<?>>(type.getPropertyDefinitions());
+            for (ObjectType aspect : current.types.values())
+            {
+                merged.putAll(aspect.getPropertyDefinitions());
+            }
+
+            result = Collections.unmodifiableMap(merged);
+            Map<String, PropertyDefinition<?>> existing = current.mergedDefinitions.putIfAbsent(type.getId(), result);
+            if (existing != null)
+            {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the compound <code>cmis:objectTypeId</code> value of the given
+     * type with the aspects of this set. The value is built once per type id
+     * and shared by all objects with this type and aspect set.
+     *
+     * @param type the object type
+     * @return the interned type id, without aspects the repository does not
+     *         know
+     */
+    public AlfrescoTypeId getTypeId(ObjectType type)
+    {
+        Resolution current = resolve();
+        AlfrescoTypeId result = current.typeIds.get(type.getId());
+        if (result == null)
+        {
+            result = registry.internTypeId(AlfrescoTypeId.create(type.getId(), current.types.keySet()));
+            AlfrescoTypeId existing = current.typeIds.putIfAbsent(type.getId(), result);
+            if (existing != null)
+            {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the compiled converters for all properties of the aspects in this
+     * set, keyed by property id. The map is built once and shared by all
+     * objects with this aspect set.
+     *
+     * @return unmodifiable map of property converters
+     */
+    public Map<String, AlfrescoPropertyConverter<?>> getPropertyConverters()
+    {
+        Resolution current = resolve();
+        Map<String, AlfrescoPropertyConverter<?>> result = current.propertyConverters;
+        if (result == null)
+        {
+            Map<String, AlfrescoPropertyConverter<?>> converters = new HashMap<String, AlfrescoPropertyConverter<?>>();
+            for (ObjectType aspect : current.types.values())
+            {
+                for (String propertyId : aspect.getPropertyDefinitions().keySet())
+                {
+                    if (!converters.containsKey(propertyId))
+                    {
+                        ObjectType owner = registry.findAspect(current.types, propertyId);
+                        converters.put(propertyId, registry.getPropertyConverter(owner != null ? owner : aspect, propertyId));
+                    }
+                }
+            }
+
+            result = Collections.unmodifiableMap(converters);
+            current.propertyConverters = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the bitset of this set.
+     *
+     * @return the bitset, or <code>null</code> if an aspect of this set has no
+     *         ordinal yet because its type has not been resolved
+     */
+    long[] getBits()
+    {
+        long[] result = bits;
+        if (result == null)
+        {
+            // the types may have been resolved in the meantime
+            result = computeBits();
+            bits = result;
+        }
+
+        return result;
+    }
+
+    private long[] computeBits()
+    {
+        int maxOrdinal = -1;
+        int[] ordinals = new int[ids.length];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ordinals[i] = registry.getAspectOrdinal(ids[i]);
+            if (ordinals[i] < 0)
+            {
+                return null;
+            }
+            maxOrdinal = Math.max(maxOrdinal, ordinals[i]);
+        }
+
+        long[] result = new long[(maxOrdinal >> 6) + 1];
+        for (int ordinal : ordinals)
+        {
+            result[ordinal >> 6] |= 1L << ordinal;
+        }
+
+        return result;
+    }
+
+    static boolean isSet(long[] bits, int ordinal)
+    {
+        int word = ordinal >> 6;
+        return word < bits.length && (bits[word] & (1L << ordinal)) != 0L;
+    }
+
+    /**
+     * Resolved aspect types of a set and the structures derived from them.
+     * Derived structures are discarded together with the types.
+     */
+    private static final class Resolution
+    {
+        final Map<String, ObjectType> types;
+        final boolean incomplete;
+        final long expires;
+        final ConcurrentMap<String, AlfrescoTypeId> typeIds = new ConcurrentHashMap<String, AlfrescoTypeId>(4);
+        final ConcurrentMap<String, Map<String, PropertyDefinition<?>>> mergedDefinitions = new ConcurrentHashMap<String, Map<String, PropertyDefinition<?>>>(4);
+        volatile Map<String, AlfrescoPropertyConverter<?>> propertyConverters;
+
+        Resolution(Map<String, ObjectType> types, boolean incomplete, long expires)
+        {
+            this.types = types;
+            this.incomplete = incomplete;
+            this.expires = expires;
+        }
+
+        boolean isExpired()
+        {
+            return incomplete && System.nanoTime() - expires >= 0;
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof AlfrescoAspectSet))
+        {
+            return false;
+        }
+
+        AlfrescoAspectSet other = (AlfrescoAspectSet) obj;
+        return hash == other.hash && Arrays.equals(ids, other.ids);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(ids);
+    }
+}
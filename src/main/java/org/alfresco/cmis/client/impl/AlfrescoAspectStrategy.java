@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+/**
+ * Encodes aspects and aspect properties for one CMIS version.
+ * <p>
+ * CMIS 1.0 repositories transport aspects in Alfresco extensions, CMIS 1.1
+ * repositories use secondary types. The object factory picks the matching
+ * strategy once per session, so the conversion code does not need to check
+ * the repository version.
+ */
+public interface AlfrescoAspectStrategy
+{
+    /**
+     * Returns the id of the type whose descendants include all aspects.
+     */
+    String getAspectRootTypeId();
+
+    /**
+     * Returns whether a descendant of the aspect root type is an aspect.
+     */
+    boolean isAspectType(ObjectType type);
+
+    /**
+     * Returns the ids of the aspects applied to the given object.
+     *
+     * @return the aspect ids, or <code>null</code> if the object carries no
+     *         aspect information
+     */
+    List<String> getAspectIds(CmisObject object);
+
+    /**
+     * Adds the aspects of an outgoing property set to the type properties,
+     * before they are converted. Aspect properties that are converted together
+     * with the type properties are moved from the aspect properties to the
+     * type properties.
+     */
+    void addAspectProperties(Map<String, Object> typeProperties, AlfrescoPropertyPlan plan,
+            Map<String, Object> aspectProperties);
+
+    /**
+     * Adds the aspects and aspect property values of an outgoing property set to
+     * the converted properties.
+     */
+    void addAspectExtensions(Properties properties, AlfrescoPropertyPlan plan, Map<String, Object> aspectProperties);
+
+    /**
+     * Removes the aspect ids from converted outgoing properties and keeps the
+     * aspect property values. Used for updates that don't change the aspects.
+     */
+    void removeAspectIds(Properties properties);
+
+    /**
+     * Converts the aspect properties of an incoming property set and adds them
+     * to the result.
+     */
+    void convertAspectProperties(ObjectFactory objectFactory, Properties properties, Map<String, Property<?>> result);
+
+    /**
+     * Adds and removes aspects of an object in the repository.
+     *
+     * @param changeToken
+     *            receives the change token returned by the repository, may be
+     *            <code>null</code>
+     * @return the object id
+     */
+    String updateAspects(CmisObject object, ObjectType[] addAspects, ObjectType[] removeAspects,
+            Map<String, ?> properties, Holder<String> changeToken);
+}
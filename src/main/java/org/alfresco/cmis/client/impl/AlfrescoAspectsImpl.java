@@ -15,9 +15,9 @@
  */
 package org.alfresco.cmis.client.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,52 +28,64 @@ import org.apache.chemistry.opencmis.client.api.CmisObject;
 import org.apache.chemistry.opencmis.client.api.ObjectType;
 import org.apache.chemistry.opencmis.client.api.Property;
 import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.PropertyImpl;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
-import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
-import org.apache.chemistry.opencmis.commons.enums.ExtensionLevel;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
 
 public class AlfrescoAspectsImpl implements AlfrescoAspects {
 	private Session session;
+	private AlfrescoAspectRegistry registry;
 	private CmisObject object;
-	private Map<String, ObjectType> aspectTypes;
+	private volatile AlfrescoAspectSet aspects;
+	private boolean localUpdates;
 
 	public AlfrescoAspectsImpl(Session session, CmisObject object) {
+		this(session, object, session.getObjectFactory() instanceof AlfrescoObjectFactoryImpl
+				&& ((AlfrescoObjectFactoryImpl) session.getObjectFactory()).isLazyAspects());
+	}
+
+	/**
+	 * Creates the aspects of an object.
+	 * 
+	 * @param session
+	 *            the session
+	 * @param object
+	 *            the object
+	 * @param lazy
+	 *            if <code>true</code>, only the aspect ids are kept and the
+	 *            aspect types are resolved on first use
+	 */
+	public AlfrescoAspectsImpl(Session session, CmisObject object, boolean lazy) {
 		this.session = session;
+		this.registry = AlfrescoAspectRegistry.get(session);
 		this.object = object;
+		this.localUpdates = session.getObjectFactory() instanceof AlfrescoObjectFactoryImpl
+				&& ((AlfrescoObjectFactoryImpl) session.getObjectFactory()).isLocalAspectUpdates();
 
-		Property<?> secondaryTypesProp = object.getProperty(PropertyIds.SECONDARY_OBJECT_TYPE_IDS);
-		if(secondaryTypesProp != null)
-		{
-			// cmis 1.1
-			List<String> secondaryTypes = secondaryTypesProp.getValue();
-			aspectTypes = new HashMap<String, ObjectType>();
-			for(String secondaryType : secondaryTypes)
-			{
-	            ObjectType aspectType = session.getTypeDefinition(secondaryType);
-	            aspectTypes.put(aspectType.getId(), aspectType);
-			}
-		}
-		else
-		{
-			// cmis 1.0
-			List<CmisExtensionElement> alfrescoExtensions = AlfrescoUtils
-					.findAlfrescoExtensions(object
-							.getExtensions(ExtensionLevel.PROPERTIES));
-	
-			if (alfrescoExtensions == null) {
-				aspectTypes = Collections.emptyMap();
-			} else {
-				aspectTypes = new HashMap<String, ObjectType>();
-				for (ObjectType type : AlfrescoUtils.getAspectTypes(session,
-						alfrescoExtensions)) {
-					if (type != null) {
-						aspectTypes.put(type.getId(), type);
-					}
-				}
-			}
+		List<String> aspectIds = AlfrescoUtils.getAspectStrategy(session).getAspectIds(object);
+
+		// objects with the same aspects share one set
+		aspects = registry.internAspectSet(aspectIds);
+
+		if (!lazy) {
+			resolveAspectTypes();
 		}
 	}
 
+	/**
+	 * Returns the shared aspect set of this object.
+	 * 
+	 * @return the interned aspect set
+	 */
+	public AlfrescoAspectSet getAspectSet() {
+		return aspects;
+	}
+
+	private Map<String, ObjectType> resolveAspectTypes() {
+		return aspects.getTypes();
+	}
+
     public ObjectType getTypeWithAspects() {
 		if (object instanceof AlfrescoDocument) {
 			return new AlfrescoDocumentTypeImpl((AlfrescoDocument) object);
@@ -85,7 +97,7 @@ public class AlfrescoAspectsImpl implements AlfrescoAspects {
 	}
 
 	public boolean hasAspect(String id) {
-		return aspectTypes.containsKey(id);
+		return aspects.contains(id);
 	}
 
 	public boolean hasAspect(ObjectType type) {
@@ -93,102 +105,235 @@ public class AlfrescoAspectsImpl implements AlfrescoAspects {
 	}
 
 	public Collection<ObjectType> getAspects() {
-		return aspectTypes.values();
+		return resolveAspectTypes().values();
 	}
 
 	public ObjectType findAspect(String propertyId) {
-		return AlfrescoUtils
-				.findAspect(aspectTypes.values(), propertyId);
+		return registry.findAspect(resolveAspectTypes(), propertyId);
 	}
 
 	public CmisObject addAspect(String... id) {
-		if (id == null || id.length == 0) {
-			throw new IllegalArgumentException("Id must be set!");
-		}
+		return apply(sendAddAspect(id, null));
+	}
 
-		ObjectType[] types = new ObjectType[id.length];
-		for (int i = 0; i < id.length; i++) {
-			types[i] = session.getTypeDefinition(id[i]);
+	public CmisObject addAspect(ObjectType... type) {
+		return apply(sendAddAspect(type, null));
+	}
+
+	public CmisObject addAspect(ObjectType type, Map<String, ?> properties) {
+		return apply(sendAddAspect(new ObjectType[] { type }, properties));
+	}
+
+	public CmisObject addAspect(ObjectType[] type, Map<String, ?> properties) {
+		return apply(sendAddAspect(type, properties));
+	}
+
+	public CmisObject addAspect(String id, Map<String, ?> properties) {
+		return apply(sendAddAspect(new String[] { id }, properties));
+	}
+
+	public CmisObject addAspect(String[] id, Map<String, ?> properties) {
+		return apply(sendAddAspect(id, properties));
+	}
+
+	public CmisObject removeAspect(String... id) {
+		return apply(sendRemoveAspect(id));
+	}
+
+	public CmisObject removeAspect(ObjectType... type) {
+		return apply(sendRemoveAspect(type));
+	}
+
+	private CmisObject apply(AspectUpdate update) {
+		if (!applyLocally(update)) {
+			object.refresh();
 		}
 
-		return addAspect(types);
+		return getUpdatedObject(update);
 	}
 
-	public CmisObject addAspect(ObjectType... type) {
-		CmisObject ret = object;
+	/**
+	 * Sends an aspect change to the repository without changing this object.
+	 * The change is completed with {@link #applyLocally(AspectUpdate)} or a
+	 * refresh of the object.
+	 */
+	AspectUpdate sendAddAspect(String[] id, Map<String, ?> properties) {
+		return sendAddAspect(getAspectTypes(id), properties);
+	}
 
+	AspectUpdate sendAddAspect(ObjectType[] type, Map<String, ?> properties) {
 		if (type == null || type.length == 0) {
 			throw new IllegalArgumentException("Type must be set!");
 		}
 
-		String objectId = AlfrescoUtils.updateAspects(session, object, type, null,
-				null);
-        if (!object.getId().equals(objectId)) {
-            ret = session.getObject(objectId);
-        }
-		return ret;
+		return send(type, null, properties);
 	}
 
-	public CmisObject addAspect(ObjectType type, Map<String, ?> properties) {
-		return addAspect(new ObjectType[] { type }, properties);
+	AspectUpdate sendRemoveAspect(String[] id) {
+		return sendRemoveAspect(getAspectTypes(id));
 	}
 
-	public CmisObject addAspect(ObjectType[] type, Map<String, ?> properties) {
-		CmisObject ret = object;
-
+	AspectUpdate sendRemoveAspect(ObjectType[] type) {
 		if (type == null || type.length == 0) {
 			throw new IllegalArgumentException("Type must be set!");
 		}
 
-		String objectId = AlfrescoUtils.updateAspects(session, object, type, null,
-				properties);
-        if (!object.getId().equals(objectId)) {
-            ret = session.getObject(objectId);
-        }
-		return ret;
+		return send(null, type, null);
 	}
 
-	public CmisObject addAspect(String id, Map<String, ?> properties) {
-		return addAspect(new String[] { id }, properties);
+	private AspectUpdate send(ObjectType[] addAspects, ObjectType[] removeAspects, Map<String, ?> properties) {
+		Holder<String> changeToken = new Holder<String>();
+		String objectId = AlfrescoUtils.updateAspects(session, object, addAspects, removeAspects, properties,
+				changeToken);
+
+		return new AspectUpdate(addAspects, removeAspects, properties, objectId, changeToken.getValue());
 	}
 
-	public CmisObject addAspect(String[] id, Map<String, ?> properties) {
+	private ObjectType[] getAspectTypes(String[] id) {
 		if (id == null || id.length == 0) {
 			throw new IllegalArgumentException("Id must be set!");
 		}
 
 		ObjectType[] types = new ObjectType[id.length];
 		for (int i = 0; i < id.length; i++) {
-			types[i] = session.getTypeDefinition(id[i]);
+			types[i] = registry.getAspectType(id[i]);
 		}
 
-		return addAspect(types, properties);
+		return types;
 	}
 
-	public CmisObject removeAspect(String... id) {
-		if (id == null || id.length == 0) {
-			throw new IllegalArgumentException("Id must be set!");
+	/**
+	 * Returns the object an aspect change returns to the caller: this object,
+	 * or the new version if the repository created one.
+	 */
+	CmisObject getUpdatedObject(AspectUpdate update) {
+		if (object.getId().equals(update.objectId)) {
+			return object;
 		}
 
-		ObjectType[] types = new ObjectType[id.length];
-		for (int i = 0; i < id.length; i++) {
-			types[i] = session.getTypeDefinition(id[i]);
+		return session.getObject(update.objectId);
+	}
+
+	/**
+	 * Applies an aspect change that has been sent to the repository to this
+	 * object, so that it does not have to be reloaded. Changes with property
+	 * values are not applied, because the repository may convert or default
+	 * them, and neither are added aspects with default property values. Only CMIS 1.1 objects are updated; CMIS 1.0 objects carry their
+	 * aspects in extensions. The change token returned by the repository
+	 * replaces the old one, other server maintained properties such as
+	 * <code>cmis:lastModificationDate</code> keep their previous values.
+	 * 
+	 * @return <code>true</code> if the change has been applied,
+	 *         <code>false</code> if the object has to be refreshed
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	boolean applyLocally(AspectUpdate update) {
+		if (!localUpdates || !object.getId().equals(update.objectId)
+				|| (update.properties != null && !update.properties.isEmpty())) {
+			return false;
+		}
+
+		Property<?> secondaryTypes = object.getProperty(PropertyIds.SECONDARY_OBJECT_TYPE_IDS);
+		if (!(secondaryTypes instanceof PropertyImpl)) {
+			return false;
+		}
+
+		AlfrescoAspectSet updated;
+		if (update.aspectSet != null) {
+			updated = update.aspectSet;
+		} else if (update.addAspects != null) {
+			// the repository also applies the mandatory aspects of the new aspects
+			updated = registry.predictAspectSet(object.getType(), aspects, getIds(update.addAspects));
+		} else {
+			updated = registry.difference(aspects, registry.internAspectSet(getIds(update.removeAspects)));
+		}
+
+		if (!aspects.containsAll(updated) && hasNewDefaultValues(updated)) {
+			// the repository sets the default values of the new properties
+			return false;
+		}
+
+		// later updates must not send a stale change token
+		Property<?> changeToken = object.getProperty(PropertyIds.CHANGE_TOKEN);
+		if (update.changeToken != null) {
+			if (changeToken instanceof PropertyImpl) {
+				((PropertyImpl) changeToken).setValues(Collections.singletonList(update.changeToken));
+			}
+		} else if (!updated.equals(aspects) && changeToken != null && changeToken.getFirstValue() != null) {
+			return false;
+		}
+
+		if (!updated.containsAll(aspects)) {
+			// the values of the removed aspect properties are gone
+			Map<String, PropertyDefinition<?>> remaining = updated.getPropertyDefinitions(object.getType());
+			for (String propertyId : aspects.getPropertyDefinitions(object.getType()).keySet()) {
+				Property<?> property = object.getProperty(propertyId);
+				if (property instanceof PropertyImpl && !remaining.containsKey(propertyId)) {
+					((PropertyImpl) property).setValues(null);
+				}
+			}
 		}
 
-		return removeAspect(types);
+		((PropertyImpl) secondaryTypes).setValues(new ArrayList<String>(updated.getIds()));
+
+		aspects = updated;
+		return true;
 	}
 
-	public CmisObject removeAspect(ObjectType... type) {
-		CmisObject ret = object;
-		if (type == null || type.length == 0) {
-			throw new IllegalArgumentException("Type must be set!");
+	private boolean hasNewDefaultValues(AlfrescoAspectSet updated) {
+		Map<String, PropertyDefinition<?>> current = aspects.getPropertyDefinitions(object.getType());
+		for (PropertyDefinition<?> definition : updated.getPropertyDefinitions(object.getType()).values()) {
+			List<?> defaultValue = definition.getDefaultValue();
+			if (!current.containsKey(definition.getId()) && defaultValue != null && !defaultValue.isEmpty()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * An aspect change that has been sent to the repository.
+	 */
+	static final class AspectUpdate {
+		private final ObjectType[] addAspects;
+		private final ObjectType[] removeAspects;
+		private final AlfrescoAspectSet aspectSet;
+		private final Map<String, ?> properties;
+		private final String objectId;
+		private final String changeToken;
+
+		AspectUpdate(ObjectType[] addAspects, ObjectType[] removeAspects, Map<String, ?> properties,
+				String objectId, String changeToken) {
+			this.addAspects = addAspects;
+			this.removeAspects = removeAspects;
+			this.aspectSet = null;
+			this.properties = properties;
+			this.objectId = objectId;
+			this.changeToken = changeToken;
+		}
+
+		/**
+		 * Creates an update that replaces the aspects with the given set.
+		 */
+		AspectUpdate(AlfrescoAspectSet aspectSet, Map<String, ?> properties, String objectId, String changeToken) {
+			this.addAspects = null;
+			this.removeAspects = null;
+			this.aspectSet = aspectSet;
+			this.properties = properties;
+			this.objectId = objectId;
+			this.changeToken = changeToken;
+		}
+	}
+
+	private static List<String> getIds(ObjectType[] types) {
+		List<String> ids = new ArrayList<String>(types.length);
+		for (ObjectType type : types) {
+			if (type != null) {
+				ids.add(type.getId());
+			}
 		}
 
-		String objectId = AlfrescoUtils.updateAspects(session, object, null, type,
-				null);
-        if (!object.getId().equals(objectId)) {
-            ret = session.getObject(objectId);
-        }
-        return ret;
+		return ids;
 	}
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+
+/**
+ * Runs the asynchronous updates of one object one after another. Aspect
+ * changes send the complete aspect list on CMIS 1.1, so two changes of the
+ * same object must not overlap.
+ */
+public class AlfrescoAsyncQueue implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private transient CompletableFuture<CmisObject> last;
+
+    /**
+     * Runs an update after all updates submitted before it have completed.
+     * 
+     * @param session session
+     * @param update the update, returns the changed object
+     * 
+     * @return the future of the changed object
+     */
+    public synchronized CompletableFuture<CmisObject> submit(Session session, Supplier<CmisObject> update)
+    {
+        last = AlfrescoUtils.supplyAsync(session, last, update);
+        return last;
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.alfresco.cmis.client.AlfrescoBulkAspectListener;
+import org.alfresco.cmis.client.AlfrescoBulkAspects;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.data.BulkUpdateObjectIdAndChangeToken;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.BulkUpdateObjectIdAndChangeTokenImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+/**
+ * Bulk aspect updates.
+ * <p>
+ * CMIS 1.1 repositories are updated with one <code>bulkUpdateProperties</code>
+ * call per batch, which adds or removes the aspects as secondary types. Objects
+ * the repository does not return are reported as failed. CMIS 1.0
+ * repositories don't support bulk updates, so every object gets its own
+ * <code>setAspects</code> extension update. These updates run on a bounded
+ * number of threads and at most that many objects are read ahead from the
+ * input.
+ * <p>
+ * Updated objects are removed from the session cache.
+ */
+public class AlfrescoBulkAspectsImpl implements AlfrescoBulkAspects
+{
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    private final Session session;
+    private final int batchSize;
+    private final int parallelism;
+
+    public AlfrescoBulkAspectsImpl(Session session)
+    {
+        this(session, DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates the bulk updater.
+     *
+     * @param session the session
+     * @param batchSize the number of objects per CMIS 1.1 bulk update
+     * @param parallelism the number of concurrent CMIS 1.0 updates
+     */
+    public AlfrescoBulkAspectsImpl(Session session, int batchSize, int parallelism)
+    {
+        if (batchSize < 1)
+        {
+            throw new IllegalArgumentException("Batch size must be positive!");
+        }
+        if (parallelism < 1)
+        {
+            throw new IllegalArgumentException("Parallelism must be positive!");
+        }
+
+        this.session = session;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    public void addAspects(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects, Collection<String> aspectIds,
+            AlfrescoBulkAspectListener listener)
+    {
+        update(objects, aspectIds, true, listener);
+    }
+
+    public void removeAspects(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects,
+            Collection<String> aspectIds, AlfrescoBulkAspectListener listener)
+    {
+        update(objects, aspectIds, false, listener);
+    }
+
+    private void update(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects, Collection<String> aspectIds,
+            boolean add, AlfrescoBulkAspectListener listener)
+    {
+        if (objects == null)
+        {
+            throw new IllegalArgumentException("Objects must be set!");
+        }
+        if (aspectIds == null || aspectIds.isEmpty())
+        {
+            throw new IllegalArgumentException("Aspect ids must be set!");
+        }
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("Listener must be set!");
+        }
+
+        // fail early on unknown aspects
+        AlfrescoAspectRegistry registry = AlfrescoAspectRegistry.get(session);
+        List<ObjectType> aspectTypes = new ArrayList<ObjectType>(aspectIds.size());
+        for (String aspectId : aspectIds)
+        {
+            aspectTypes.add(registry.getAspectType(aspectId));
+        }
+
+        AlfrescoBulkAspectListener serializedListener = new SerializedListener(listener);
+
+        if (CmisVersion.CMIS_1_0.equals(session.getRepositoryInfo().getCmisVersion()))
+        {
+            updateCmis10(objects, aspectTypes, add, serializedListener);
+        } else
+        {
+            updateCmis11(objects, new ArrayList<String>(aspectIds), add, serializedListener);
+        }
+    }
+
+    private void updateCmis11(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects, List<String> aspectIds,
+            boolean add, AlfrescoBulkAspectListener listener)
+    {
+        List<BulkUpdateObjectIdAndChangeToken> batch = new ArrayList<BulkUpdateObjectIdAndChangeToken>(batchSize);
+        for (BulkUpdateObjectIdAndChangeToken object : objects)
+        {
+            batch.add(object);
+            if (batch.size() == batchSize)
+            {
+                updateBatch(batch, aspectIds, add, listener);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty())
+        {
+            updateBatch(batch, aspectIds, add, listener);
+        }
+    }
+
+    private void updateBatch(List<BulkUpdateObjectIdAndChangeToken> batch, List<String> aspectIds, boolean add,
+            AlfrescoBulkAspectListener listener)
+    {
+        String repId = session.getRepositoryInfo().getId();
+
+        List<BulkUpdateObjectIdAndChangeToken> updated;
+        try
+        {
+            updated = session
+                    .getBinding()
+                    .getObjectService()
+                    .bulkUpdateProperties(repId, new ArrayList<BulkUpdateObjectIdAndChangeToken>(batch),
+                            new PropertiesImpl(), add ? aspectIds : null, add ? null : aspectIds, null);
+        } catch (Exception e)
+        {
+            for (BulkUpdateObjectIdAndChangeToken object : batch)
+            {
+                listener.onFailure(object, e);
+            }
+            return;
+        }
+
+        Map<String, BulkUpdateObjectIdAndChangeToken> updatedById = new HashMap<String, BulkUpdateObjectIdAndChangeToken>();
+        if (updated != null)
+        {
+            for (BulkUpdateObjectIdAndChangeToken object : updated)
+            {
+                updatedById.put(object.getId(), object);
+            }
+        }
+
+        for (BulkUpdateObjectIdAndChangeToken object : batch)
+        {
+            BulkUpdateObjectIdAndChangeToken result = updatedById.get(object.getId());
+            if (result == null)
+            {
+                listener.onFailure(object, new CmisRuntimeException("Object " + object.getId()
+                        + " has not been updated!"));
+            } else
+            {
+                session.removeObjectFromCache(object.getId());
+                listener.onSuccess(result);
+            }
+        }
+    }
+
+    private void updateCmis10(Iterable<? extends BulkUpdateObjectIdAndChangeToken> objects,
+            List<ObjectType> aspectTypes, boolean add, final AlfrescoBulkAspectListener listener)
+    {
+        final String repId = session.getRepositoryInfo().getId();
+
+        // all objects get the same extension
+        List<CmisExtensionElement> alfrescoExtensionList = new ArrayList<CmisExtensionElement>(aspectTypes.size());
+        for (ObjectType aspectType : aspectTypes)
+        {
+            alfrescoExtensionList.add(add ? AlfrescoUtils.createAspectsToAddExtension(aspectType) : AlfrescoUtils
+                    .createAspectsToRemoveExtension(aspectType));
+        }
+        PropertiesImpl cmisProperties = new PropertiesImpl();
+        cmisProperties.setExtensions(Collections.singletonList(AlfrescoUtils
+                .createSetAspectsExtension(alfrescoExtensionList)));
+        final Properties properties = cmisProperties;
+
+        // at most one pending object per thread
+        final Semaphore permits = new Semaphore(parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try
+        {
+            for (final BulkUpdateObjectIdAndChangeToken object : objects)
+            {
+                permits.acquireUninterruptibly();
+                try
+                {
+                    executor.execute(new Runnable()
+                    {
+                        public void run()
+                        {
+                            try
+                            {
+                                updateObject(repId, object, properties, listener);
+                            } finally
+                            {
+                                permits.release();
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e)
+                {
+                    permits.release();
+                    listener.onFailure(object, e);
+                }
+            }
+
+            // wait for the pending updates
+            permits.acquireUninterruptibly(parallelism);
+        } finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void updateObject(String repId, BulkUpdateObjectIdAndChangeToken object, Properties properties,
+            AlfrescoBulkAspectListener listener)
+    {
+        Holder<String> objectIdHolder = new Holder<String>(object.getId());
+        Holder<String> changeTokenHolder = new Holder<String>(object.getChangeToken());
+
+        try
+        {
+            session.getBinding().getObjectService()
+                    .updateProperties(repId, objectIdHolder, changeTokenHolder, properties, null);
+        } catch (Exception e)
+        {
+            listener.onFailure(object, e);
+            return;
+        }
+
+        session.removeObjectFromCache(object.getId());
+
+        String newId = objectIdHolder.getValue();
+        listener.onSuccess(new BulkUpdateObjectIdAndChangeTokenImpl(object.getId(), object.getId().equals(newId) ? null
+                : newId, changeTokenHolder.getValue()));
+    }
+
+    /**
+     * Serializes the listener calls of the update threads.
+     */
+    private static final class SerializedListener implements AlfrescoBulkAspectListener
+    {
+        private final AlfrescoBulkAspectListener listener;
+
+        SerializedListener(AlfrescoBulkAspectListener listener)
+        {
+            this.listener = listener;
+        }
+
+        public synchronized void onSuccess(BulkUpdateObjectIdAndChangeToken object)
+        {
+            listener.onSuccess(object);
+        }
+
+        public synchronized void onFailure(BulkUpdateObjectIdAndChangeToken object, Exception exception)
+        {
+            listener.onFailure(object, exception);
+        }
+    }
+}
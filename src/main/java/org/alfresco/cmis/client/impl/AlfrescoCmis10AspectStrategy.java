@@ -0,0 +1,340 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.enums.ExtensionLevel;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+/**
+ * CMIS 1.0 aspect strategy. Aspects are policy types with a <code>P:</code>
+ * prefix and are transported in Alfresco extensions.
+ */
+public class AlfrescoCmis10AspectStrategy implements AlfrescoAspectStrategy
+{
+    private final Session session;
+    private final boolean lazyProperties;
+
+    public AlfrescoCmis10AspectStrategy(Session session)
+    {
+        this(session, false);
+    }
+
+    /**
+     * Creates the strategy.
+     *
+     * @param session the session
+     * @param lazyProperties if <code>true</code>, aspect property values are
+     *            converted when they are read for the first time
+     */
+    public AlfrescoCmis10AspectStrategy(Session session, boolean lazyProperties)
+    {
+        this.session = session;
+        this.lazyProperties = lazyProperties;
+    }
+
+    public String getAspectRootTypeId()
+    {
+        return BaseTypeId.CMIS_POLICY.value();
+    }
+
+    public boolean isAspectType(ObjectType type)
+    {
+        return type.getId().startsWith("P:");
+    }
+
+    public List<String> getAspectIds(CmisObject object)
+    {
+        List<CmisExtensionElement> alfrescoExtensions = AlfrescoUtils.findAlfrescoExtensions(object
+                .getExtensions(ExtensionLevel.PROPERTIES));
+
+        return alfrescoExtensions == null ? null : AlfrescoUtils.getAspectIds(alfrescoExtensions);
+    }
+
+    public void addAspectProperties(Map<String, Object> typeProperties, AlfrescoPropertyPlan plan,
+            Map<String, Object> aspectProperties)
+    {
+        // aspects are sent as extensions
+    }
+
+    public void addAspectExtensions(Properties properties, AlfrescoPropertyPlan plan, Map<String, Object> aspectProperties)
+    {
+        // prepare extensions
+        List<CmisExtensionElement> alfrescoExtensionList = new ArrayList<CmisExtensionElement>();
+
+        // prepare aspects
+        for (ObjectType aspectType : plan.getAspectTypes())
+        {
+            alfrescoExtensionList.add(AlfrescoUtils.createAspectsToAddExtension(aspectType));
+        }
+
+        // prepare aspect properties
+        if (!aspectProperties.isEmpty())
+        {
+            List<CmisExtensionElement> propertrtyExtensionList = new ArrayList<CmisExtensionElement>();
+
+            for (Map.Entry<String, Object> property : aspectProperties.entrySet())
+            {
+                AlfrescoPropertyConverter<?> converter = plan.getAspectPropertyConverter(property.getKey());
+                if (converter == null)
+                {
+                    throw new IllegalArgumentException("Unknown aspect property: " + property.getKey());
+                }
+
+                propertrtyExtensionList.add(converter.createExtension(property.getValue()));
+            }
+
+            alfrescoExtensionList.add(AlfrescoUtils.createAspectPropertiesExtension(propertrtyExtensionList));
+        }
+
+        if (!alfrescoExtensionList.isEmpty())
+        {
+            properties.setExtensions(Collections.singletonList(AlfrescoUtils
+                    .createSetAspectsExtension(alfrescoExtensionList)));
+        }
+    }
+
+    public void removeAspectIds(Properties properties)
+    {
+        List<CmisExtensionElement> extensions = properties.getExtensions();
+        if (extensions == null || extensions.isEmpty())
+        {
+            return;
+        }
+
+        // keep everything but the aspectsToAdd elements
+        List<CmisExtensionElement> newExtensions = new ArrayList<CmisExtensionElement>(extensions.size());
+        for (CmisExtensionElement extension : extensions)
+        {
+            if (!AlfrescoUtils.ALFRESCO_NAMESPACE.equals(extension.getNamespace())
+                    || !AlfrescoUtils.SET_ASPECTS.equals(extension.getName()))
+            {
+                newExtensions.add(extension);
+                continue;
+            }
+
+            List<CmisExtensionElement> children = new ArrayList<CmisExtensionElement>();
+            for (CmisExtensionElement child : extension.getChildren())
+            {
+                if (!AlfrescoUtils.ASPECTS_TO_ADD.equals(child.getName()))
+                {
+                    children.add(child);
+                }
+            }
+
+            if (!children.isEmpty())
+            {
+                newExtensions.add(AlfrescoUtils.createSetAspectsExtension(children));
+            }
+        }
+
+        properties.setExtensions(newExtensions);
+    }
+
+    public void convertAspectProperties(ObjectFactory objectFactory, Properties properties, Map<String, Property<?>> result)
+    {
+        // collect aspects and properties in one pass over the Alfresco extensions
+        ExtensionCollector collector = new ExtensionCollector();
+        if (!AlfrescoUtils.visitAlfrescoExtensions(properties.getExtensions(), collector))
+        {
+            // no Alfresco extensions found
+            return;
+        }
+
+        // get the aspects and the converters of their properties
+        AlfrescoAspectSet aspects = AlfrescoAspectRegistry.get(session).internAspectSet(collector.aspectIds,
+                collector.aspectCount);
+        Map<String, AlfrescoPropertyConverter<?>> converters = aspects.getPropertyConverters();
+        boolean unknownAspects = aspects.getTypes().size() < aspects.size();
+
+        if (collector.properties != null)
+        {
+            convertAspectProperties(objectFactory, collector.properties, converters, unknownAspects, result);
+        }
+        if (collector.moreProperties != null)
+        {
+            for (CmisExtensionElement extension : collector.moreProperties)
+            {
+                convertAspectProperties(objectFactory, extension, converters, unknownAspects, result);
+            }
+        }
+    }
+
+    private void convertAspectProperties(ObjectFactory objectFactory, CmisExtensionElement extension,
+            Map<String, AlfrescoPropertyConverter<?>> converters, boolean unknownAspects,
+            Map<String, Property<?>> result)
+    {
+        for (CmisExtensionElement property : extension.getChildren())
+        {
+            String id = property.getAttributes().get("propertyDefinitionId");
+
+            AlfrescoPropertyConverter<?> converter = converters.get(id);
+            if (converter == null)
+            {
+                if (unknownAspects)
+                {
+                    // most likely a property of an undeployed aspect
+                    continue;
+                }
+                throw new IllegalArgumentException("Unknown aspect property: " + id);
+            }
+
+            if (lazyProperties)
+            {
+                result.put(id, converter.convertLazily(property));
+            } else
+            {
+                result.put(id, converter.convert(objectFactory, property));
+            }
+        }
+    }
+
+    public String updateAspects(CmisObject object, ObjectType[] addAspects, ObjectType[] removeAspects,
+            Map<String, ?> properties, Holder<String> changeToken)
+    {
+        String objectId = object.getId();
+        String repId = session.getRepositoryInfo().getId();
+        Holder<String> objectIdHolder = new Holder<String>(objectId);
+        AlfrescoAspectRegistry registry = AlfrescoAspectRegistry.get(session);
+        Map<String, AlfrescoPropertyConverter<?>> aspectPropertyConverters = null;
+
+        List<CmisExtensionElement> alfrescoExtensionList = new ArrayList<CmisExtensionElement>();
+
+        if (addAspects != null)
+        {
+            aspectPropertyConverters = new HashMap<String, AlfrescoPropertyConverter<?>>();
+            for (ObjectType type : addAspects)
+            {
+                if (type != null)
+                {
+                    alfrescoExtensionList.add(AlfrescoUtils.createAspectsToAddExtension(type));
+
+                    if (type.getPropertyDefinitions() != null)
+                    {
+                        for (String propertyId : type.getPropertyDefinitions().keySet())
+                        {
+                            // the last aspect that defines a property wins
+                            aspectPropertyConverters.put(propertyId, registry.getPropertyConverter(type, propertyId));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (removeAspects != null)
+        {
+            for (ObjectType type : removeAspects)
+            {
+                if (type != null)
+                {
+                    alfrescoExtensionList.add(AlfrescoUtils.createAspectsToRemoveExtension(type));
+                }
+            }
+        }
+
+        if (alfrescoExtensionList.isEmpty())
+        {
+            return objectId;
+        }
+
+        // add property values
+        if (addAspects != null && properties != null && !properties.isEmpty())
+        {
+            List<CmisExtensionElement> aspectProperties = new ArrayList<CmisExtensionElement>(properties.size());
+
+            for (Map.Entry<String, ?> property : properties.entrySet())
+            {
+                if ((property == null) || (property.getKey() == null))
+                {
+                    continue;
+                }
+
+                String id = property.getKey();
+                Object value = property.getValue();
+
+                AlfrescoPropertyConverter<?> converter = aspectPropertyConverters.get(id);
+                if (converter == null)
+                {
+                    throw new IllegalArgumentException("Property '" + id + "' is not an aspect property!");
+                }
+
+                aspectProperties.add(converter.createExtension(value));
+            }
+
+            alfrescoExtensionList.add(AlfrescoUtils.createAspectPropertiesExtension(aspectProperties));
+        }
+
+        PropertiesImpl cmisProperties = new PropertiesImpl();
+        cmisProperties.setExtensions(Collections.singletonList(AlfrescoUtils
+                .createSetAspectsExtension(alfrescoExtensionList)));
+
+        session.getBinding().getObjectService().updateProperties(repId, objectIdHolder, changeToken, cmisProperties, null);
+
+        return objectIdHolder.getValue();
+    }
+
+    /**
+     * Collects the applied aspect ids into a small array and remembers the
+     * property containers, so that the properties can be converted once all
+     * aspects are known.
+     */
+    private static final class ExtensionCollector implements AlfrescoExtensionVisitor
+    {
+        String[] aspectIds = new String[8];
+        int aspectCount;
+        CmisExtensionElement properties;
+        List<CmisExtensionElement> moreProperties;
+
+        public void visitAppliedAspect(String aspectId)
+        {
+            if (aspectCount == aspectIds.length)
+            {
+                aspectIds = Arrays.copyOf(aspectIds, aspectCount * 2);
+            }
+            aspectIds[aspectCount++] = aspectId;
+        }
+
+        public void visitProperties(CmisExtensionElement extension)
+        {
+            if (properties == null)
+            {
+                properties = extension;
+            } else
+            {
+                if (moreProperties == null)
+                {
+                    moreProperties = new ArrayList<CmisExtensionElement>(1);
+                }
+                moreProperties.add(extension);
+            }
+        }
+    }
+}
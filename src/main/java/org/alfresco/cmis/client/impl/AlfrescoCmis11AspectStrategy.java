@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.MutableProperties;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.data.PropertyData;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+/**
+ * CMIS 1.1 aspect strategy. Aspects are secondary types and aspect properties
+ * are regular properties, so OpenCMIS does most of the work.
+ */
+public class AlfrescoCmis11AspectStrategy implements AlfrescoAspectStrategy
+{
+    private final Session session;
+
+    public AlfrescoCmis11AspectStrategy(Session session)
+    {
+        this.session = session;
+    }
+
+    public String getAspectRootTypeId()
+    {
+        return BaseTypeId.CMIS_SECONDARY.value();
+    }
+
+    public boolean isAspectType(ObjectType type)
+    {
+        return true;
+    }
+
+    public List<String> getAspectIds(CmisObject object)
+    {
+        Property<?> secondaryTypesProp = object.getProperty(PropertyIds.SECONDARY_OBJECT_TYPE_IDS);
+
+        return secondaryTypesProp == null ? null : secondaryTypesProp.<List<String>> getValue();
+    }
+
+    public void addAspectProperties(Map<String, Object> typeProperties, AlfrescoPropertyPlan plan,
+            Map<String, Object> aspectProperties)
+    {
+        typeProperties.put(PropertyIds.SECONDARY_OBJECT_TYPE_IDS, new ArrayList<String>(plan.getAspectIds()));
+
+        // OpenCMIS checks them against the secondary types
+        typeProperties.putAll(aspectProperties);
+        aspectProperties.clear();
+    }
+
+    public void addAspectExtensions(Properties properties, AlfrescoPropertyPlan plan, Map<String, Object> aspectProperties)
+    {
+        // aspect properties have been converted with the type properties
+    }
+
+    public void removeAspectIds(Properties properties)
+    {
+        if (properties instanceof MutableProperties)
+        {
+            ((MutableProperties) properties).removeProperty(PropertyIds.SECONDARY_OBJECT_TYPE_IDS);
+        }
+    }
+
+    public void convertAspectProperties(ObjectFactory objectFactory, Properties properties, Map<String, Property<?>> result)
+    {
+        // aspect properties are regular properties
+    }
+
+    public String updateAspects(CmisObject object, ObjectType[] addAspects, ObjectType[] removeAspects,
+            Map<String, ?> properties, Holder<String> changeToken)
+    {
+        String objectId = object.getId();
+        String repId = session.getRepositoryInfo().getId();
+        Holder<String> objectIdHolder = new Holder<String>(objectId);
+
+        List<String> currentSecondaryTypes = getAspectIds(object);
+
+        // add/remove as bitset operations on the interned aspect sets
+        AlfrescoAspectRegistry registry = AlfrescoAspectRegistry.get(session);
+        AlfrescoAspectSet currentSet = registry.internAspectSet(currentSecondaryTypes);
+        AlfrescoAspectSet secondaryTypesSet = currentSet;
+
+        if (addAspects != null)
+        {
+            secondaryTypesSet = registry.union(secondaryTypesSet, registry.internAspectSet(getIds(addAspects)));
+        }
+
+        if (removeAspects != null)
+        {
+            secondaryTypesSet = registry.difference(secondaryTypesSet, registry.internAspectSet(getIds(removeAspects)));
+        }
+
+        if (secondaryTypesSet.equals(currentSet))
+        {
+            // nothing to do
+            return objectId;
+        }
+
+        List<String> secondaryTypesToSet = new ArrayList<String>(secondaryTypesSet.getIds());
+
+        Collection<PropertyData<?>> props = new ArrayList<PropertyData<?>>(1);
+        props.add(new PropertyIdImpl(PropertyIds.SECONDARY_OBJECT_TYPE_IDS, secondaryTypesToSet));
+        Properties cmisProperties = new PropertiesImpl(props);
+        session.getBinding().getObjectService().updateProperties(repId, objectIdHolder, changeToken, cmisProperties, null);
+
+        return objectIdHolder.getValue();
+    }
+
+    private static List<String> getIds(ObjectType[] types)
+    {
+        List<String> ids = new ArrayList<String>(types.length);
+        for (ObjectType type : types)
+        {
+            if (type != null)
+            {
+                ids.add(type.getId());
+            }
+        }
+
+        return ids;
+    }
+}
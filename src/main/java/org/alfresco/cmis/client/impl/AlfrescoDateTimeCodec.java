@@ -0,0 +1,266 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+
+/**
+ * Thread-safe <code>xs:dateTime</code> codec for aspect property values.
+ * <p>
+ * Formats and parses directly between the lexical form and
+ * {@link GregorianCalendar}, with the same results as a round trip through
+ * {@link javax.xml.datatype.XMLGregorianCalendar}. Values the fast path does
+ * not handle (years before 1 or after 9999, hour 24, leap seconds) are
+ * delegated to {@link DatatypeFactory}.
+ */
+public final class AlfrescoDateTimeCodec
+{
+    private static final Date PURE_GREGORIAN_CHANGE = new Date(Long.MIN_VALUE);
+    private static final ConcurrentMap<Integer, TimeZone> TIME_ZONES = new ConcurrentHashMap<Integer, TimeZone>();
+
+    private AlfrescoDateTimeCodec()
+    {
+    }
+
+    /**
+     * Formats a calendar as <code>xs:dateTime</code> with milliseconds and
+     * time zone offset.
+     *
+     * @param calendar the calendar
+     * @return the lexical representation
+     */
+    public static String format(GregorianCalendar calendar)
+    {
+        int year = calendar.get(Calendar.YEAR);
+        if (calendar.get(Calendar.ERA) != GregorianCalendar.AD || year > 9999)
+        {
+            return newDatatypeFactory().newXMLGregorianCalendar(calendar).toXMLFormat();
+        }
+
+        char[] buf = new char[29];
+        int pos = 0;
+        pos = appendDigits(buf, pos, year, 4);
+        buf[pos++] = '-';
+        pos = appendDigits(buf, pos, calendar.get(Calendar.MONTH) + 1, 2);
+        buf[pos++] = '-';
+        pos = appendDigits(buf, pos, calendar.get(Calendar.DAY_OF_MONTH), 2);
+        buf[pos++] = 'T';
+        pos = appendDigits(buf, pos, calendar.get(Calendar.HOUR_OF_DAY), 2);
+        buf[pos++] = ':';
+        pos = appendDigits(buf, pos, calendar.get(Calendar.MINUTE), 2);
+        buf[pos++] = ':';
+        pos = appendDigits(buf, pos, calendar.get(Calendar.SECOND), 2);
+        buf[pos++] = '.';
+        pos = appendDigits(buf, pos, calendar.get(Calendar.MILLISECOND), 3);
+
+        int offset = (calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET)) / (60 * 1000);
+        if (offset == 0)
+        {
+            buf[pos++] = 'Z';
+        } else
+        {
+            if (offset < 0)
+            {
+                buf[pos++] = '-';
+                offset = -offset;
+            } else
+            {
+                buf[pos++] = '+';
+            }
+            pos = appendDigits(buf, pos, offset / 60, 2);
+            buf[pos++] = ':';
+            pos = appendDigits(buf, pos, offset % 60, 2);
+        }
+
+        return new String(buf, 0, pos);
+    }
+
+    /**
+     * Parses an <code>xs:dateTime</code> value. Fractional seconds are
+     * truncated to milliseconds; a value without time zone is interpreted in
+     * the default time zone.
+     *
+     * @param value the lexical representation
+     * @return the calendar
+     * @throws IllegalArgumentException if the value is not a valid
+     *             <code>xs:dateTime</code>
+     */
+    public static GregorianCalendar parse(String value)
+    {
+        GregorianCalendar result = parseFast(value);
+        if (result == null)
+        {
+            result = newDatatypeFactory().newXMLGregorianCalendar(value.trim()).toGregorianCalendar();
+        }
+
+        return result;
+    }
+
+    private static GregorianCalendar parseFast(String value)
+    {
+        int length = value.length();
+        if (length < 19 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':' || value.charAt(16) != ':')
+        {
+            return null;
+        }
+
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 2);
+        int day = parseDigits(value, 8, 2);
+        int hour = parseDigits(value, 11, 2);
+        int minute = parseDigits(value, 14, 2);
+        int second = parseDigits(value, 17, 2);
+        if ((year | month | day | hour | minute | second) < 0)
+        {
+            return null;
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59)
+        {
+            return null;
+        }
+
+        int pos = 19;
+        int millis = 0;
+        if (pos < length && value.charAt(pos) == '.')
+        {
+            pos++;
+            int start = pos;
+            while (pos < length && isDigit(value.charAt(pos)))
+            {
+                if (pos - start < 3)
+                {
+                    millis = millis * 10 + (value.charAt(pos) - '0');
+                }
+                pos++;
+            }
+            if (pos == start)
+            {
+                return null;
+            }
+            for (int i = pos - start; i < 3; i++)
+            {
+                millis *= 10;
+            }
+        }
+
+        TimeZone timeZone;
+        if (pos == length)
+        {
+            timeZone = TimeZone.getDefault();
+        } else if (value.charAt(pos) == 'Z' && pos + 1 == length)
+        {
+            timeZone = getTimeZone(0);
+        } else if ((value.charAt(pos) == '+' || value.charAt(pos) == '-') && pos + 6 == length
+                && value.charAt(pos + 3) == ':')
+        {
+            int offsetHours = parseDigits(value, pos + 1, 2);
+            int offsetMinutes = parseDigits(value, pos + 4, 2);
+            if ((offsetHours | offsetMinutes) < 0 || offsetMinutes > 59 || offsetHours * 60 + offsetMinutes > 14 * 60)
+            {
+                return null;
+            }
+            int offset = offsetHours * 60 + offsetMinutes;
+            timeZone = getTimeZone(value.charAt(pos) == '-' ? -offset : offset);
+        } else
+        {
+            return null;
+        }
+
+        GregorianCalendar result = new GregorianCalendar(timeZone);
+        result.clear();
+        result.setGregorianChange(PURE_GREGORIAN_CHANGE);
+        result.set(year, month - 1, day, hour, minute, second);
+        result.set(Calendar.MILLISECOND, millis);
+
+        // reject dates such as 2011-02-30
+        if (result.get(Calendar.DAY_OF_MONTH) != day)
+        {
+            return null;
+        }
+
+        return result;
+    }
+
+    private static TimeZone getTimeZone(int offsetMinutes)
+    {
+        Integer key = Integer.valueOf(offsetMinutes);
+        TimeZone timeZone = TIME_ZONES.get(key);
+        if (timeZone == null)
+        {
+            int abs = Math.abs(offsetMinutes);
+            char[] id = new char[] { 'G', 'M', 'T', (offsetMinutes < 0 ? '-' : '+'), 0, 0, ':', 0, 0 };
+            appendDigits(id, 4, abs / 60, 2);
+            appendDigits(id, 7, abs % 60, 2);
+            timeZone = TimeZone.getTimeZone(new String(id));
+            TIME_ZONES.putIfAbsent(key, timeZone);
+        }
+
+        // time zones are mutable, hand out a copy
+        return (TimeZone) timeZone.clone();
+    }
+
+    private static int appendDigits(char[] buf, int pos, int value, int digits)
+    {
+        for (int i = pos + digits - 1; i >= pos; i--)
+        {
+            buf[i] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+
+        return pos + digits;
+    }
+
+    private static int parseDigits(String value, int start, int digits)
+    {
+        int result = 0;
+        for (int i = start; i < start + digits; i++)
+        {
+            char c = value.charAt(i);
+            if (!isDigit(c))
+            {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static DatatypeFactory newDatatypeFactory()
+    {
+        try
+        {
+            return DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e)
+        {
+            throw new IllegalArgumentException("Aspect conversation exception: " + e.getMessage(), e);
+        }
+    }
+}
@@ -16,11 +16,15 @@
 package org.alfresco.cmis.client.impl;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.alfresco.cmis.client.AlfrescoDocument;
 import org.alfresco.cmis.client.AlfrescoDocumentType;
+import org.alfresco.cmis.client.AlfrescoEditSession;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
 import org.apache.chemistry.opencmis.client.api.ObjectId;
 import org.apache.chemistry.opencmis.client.api.ObjectType;
@@ -36,7 +40,10 @@ public class AlfrescoDocumentImpl extends DocumentImpl implements
 		AlfrescoDocument {
 	private static final long serialVersionUID = 1L;
 
+	// aspect changes call the repository without the object lock and are
+	// applied under the write lock
 	protected AlfrescoAspectsImpl aspects;
+	private final AlfrescoAsyncQueue asyncQueue = new AlfrescoAsyncQueue();
 
 	public AlfrescoDocumentImpl(SessionImpl session, ObjectType objectType,
 			ObjectData objectData, OperationContext context) {
@@ -61,9 +68,33 @@ public class AlfrescoDocumentImpl extends DocumentImpl implements
 
 	@Override
 	public ObjectId updateProperties(Map<String, ?> properties, boolean refresh) {
-		return super.updateProperties(
+		if (AlfrescoUtils.isDiffUpdates(getSession())) {
+			return AlfrescoUtils.updateChangedProperties(getSession(), this,
+					getAspectSet(), properties, refresh);
+		}
+
+		return AlfrescoUtils.updateProperties(getSession(), this,
 				AlfrescoUtils.preparePropertiesForUpdate(properties,
-						getType(), getAspects()), refresh);
+						getType(), getAspectSet()), refresh);
+	}
+
+	/**
+	 * Reloads this document. Unlike {@link DocumentImpl#refresh()}, the
+	 * document is only locked while the fetched state is applied.
+	 */
+	@Override
+	public void refresh() {
+		OperationContext context = getCreationContext();
+		ObjectData objectData = AlfrescoUtils.getObjectData(getSession(),
+				getId(), context);
+		ObjectType type = getSession().getTypeDefinition(getType().getId());
+
+		writeLock();
+		try {
+			initialize(getSession(), type, objectData, context);
+		} finally {
+			writeUnlock();
+		}
 	}
 
 	@Override
@@ -72,10 +103,28 @@ public class AlfrescoDocumentImpl extends DocumentImpl implements
 			List<Policy> policies, List<Ace> addAces, List<Ace> removeAces) {
 		return super.checkIn(major,
 				AlfrescoUtils.preparePropertiesForUpdate(properties,
-						getType(), getAspects()), contentStream,
+						getType(), getAspectSet()), contentStream,
 				checkinComment, policies, addAces, addAces);
 	}
 
+	/**
+	 * Returns the shared aspect set of this document.
+	 * 
+	 * @return the interned aspect set
+	 */
+	public AlfrescoAspectSet getAspectSet() {
+		readLock();
+		try {
+			return aspects.getAspectSet();
+		} finally {
+			readUnlock();
+		}
+	}
+
+	public AlfrescoEditSession edit() {
+		return new AlfrescoEditSessionImpl(getSession(), this);
+	}
+
 	public boolean hasAspect(String id) {
 		readLock();
 		try {
@@ -113,114 +162,99 @@ public class AlfrescoDocumentImpl extends DocumentImpl implements
 	}
 
 	public CmisObject addAspect(String... id) {
-		CmisObject ret = this;
-
-		readLock();
-		try {
-			ret = aspects.addAspect(id);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-
-		return ret;
+		return applyAspectUpdate(aspects.sendAddAspect(id, null));
 	}
 
 	public CmisObject addAspect(ObjectType... type) {
-		CmisObject ret = this;
-
-		readLock();
-		try {
-			ret = aspects.addAspect(type);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-		
-		return ret;
+		return applyAspectUpdate(aspects.sendAddAspect(type, null));
 	}
 
 	public CmisObject addAspect(ObjectType type, Map<String, ?> properties) {
-		CmisObject ret = this;
-		
-		readLock();
-		try {
-			ret = aspects.addAspect(type, properties);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-		
-		return ret;
+		return applyAspectUpdate(aspects.sendAddAspect(new ObjectType[] { type }, properties));
 	}
 
 	public CmisObject addAspect(ObjectType[] type, Map<String, ?> properties) {
-		CmisObject ret = this;
-
-		readLock();
-		try {
-			ret = aspects.addAspect(type, properties);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-		
-		return ret;
+		return applyAspectUpdate(aspects.sendAddAspect(type, properties));
 	}
 
 	public CmisObject addAspect(String id, Map<String, ?> properties) {
-		CmisObject ret = this;
-		
-		readLock();
-		try {
-			ret = aspects.addAspect(id, properties);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-		
-		return ret;
+		return applyAspectUpdate(aspects.sendAddAspect(new String[] { id }, properties));
 	}
 
 	public CmisObject addAspect(String[] id, Map<String, ?> properties) {
-		CmisObject ret = this;
-		
-		readLock();
-		try {
-			ret = aspects.addAspect(id, properties);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-		
-		return ret;
+		return applyAspectUpdate(aspects.sendAddAspect(id, properties));
 	}
 
 	public CmisObject removeAspect(String... id) {
-		CmisObject ret = this;
-
-		readLock();
-		try {
-			aspects.removeAspect(id);
-		} finally {
-			readUnlock();
-		}
-		refresh();
-		
-		return ret;
+		return applyAspectUpdate(aspects.sendRemoveAspect(id));
 	}
 
 	public CmisObject removeAspect(ObjectType... type) {
-		CmisObject ret = this;
+		return applyAspectUpdate(aspects.sendRemoveAspect(type));
+	}
 
-		readLock();
+	CmisObject applyAspectUpdate(AlfrescoAspectsImpl.AspectUpdate update) {
+		AlfrescoAspectsImpl current;
+		boolean applied;
+		writeLock();
 		try {
-			ret = aspects.removeAspect(type);
+			current = aspects;
+			applied = current.applyLocally(update);
 		} finally {
-			readUnlock();
+			writeUnlock();
 		}
-		refresh();
-		
-		return ret;
+
+		if (!applied) {
+			refresh();
+		}
+
+		return current.getUpdatedObject(update);
+	}
+
+	public CompletableFuture<CmisObject> addAspectAsync(String... id) {
+		final String[] ids = (id == null ? null : id.clone());
+
+		return asyncQueue.submit(getSession(), new Supplier<CmisObject>() {
+			public CmisObject get() {
+				return addAspect(ids);
+			}
+		});
+	}
+
+	public CompletableFuture<CmisObject> addAspectAsync(final String id, Map<String, ?> properties) {
+		final Map<String, Object> newProperties = (properties == null ? null
+				: new LinkedHashMap<String, Object>(properties));
+
+		return asyncQueue.submit(getSession(), new Supplier<CmisObject>() {
+			public CmisObject get() {
+				return addAspect(id, newProperties);
+			}
+		});
+	}
+
+	public CompletableFuture<CmisObject> removeAspectAsync(String... id) {
+		final String[] ids = (id == null ? null : id.clone());
+
+		return asyncQueue.submit(getSession(), new Supplier<CmisObject>() {
+			public CmisObject get() {
+				return removeAspect(ids);
+			}
+		});
+	}
+
+	public CompletableFuture<CmisObject> updatePropertiesAsync(Map<String, ?> properties) {
+		return AlfrescoUtils.updatePropertiesAsync(getSession(), asyncQueue, this, properties);
+	}
+
+	public long getPropertyAsLong(String id, long defaultValue) {
+		return AlfrescoUtils.getPropertyAsLong(this, id, defaultValue);
+	}
+
+	public double getPropertyAsDouble(String id, double defaultValue) {
+		return AlfrescoUtils.getPropertyAsDouble(this, id, defaultValue);
+	}
+
+	public boolean getPropertyAsBoolean(String id, boolean defaultValue) {
+		return AlfrescoUtils.getPropertyAsBoolean(this, id, defaultValue);
 	}
 }
@@ -122,6 +122,11 @@ public class AlfrescoDocumentTypeImpl implements AlfrescoDocumentType {
 	}
 
 	public Map<String, PropertyDefinition<?>> getPropertyDefinitions() {
+		if (doc instanceof AlfrescoDocumentImpl) {
+			// shared by all documents with the same type and aspects
+			return ((AlfrescoDocumentImpl) doc).getAspectSet()
+					.getPropertyDefinitions(doc.getType());
+		}
 
 		Map<String, PropertyDefinition<?>> result = new HashMap<String, PropertyDefinition<?>>(
 				doc.getType().getPropertyDefinitions());
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alfresco.cmis.client.AlfrescoEditSession;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.data.MutableProperties;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.enums.Updatability;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+/**
+ * Edit session of a document or folder.
+ * <p>
+ * On flush, the final aspect set is computed from the current aspects and the
+ * recorded changes and is sent together with the property values as one
+ * compound <code>cmis:objectTypeId</code> update. The object factory turns it
+ * into a <code>cmis:secondaryObjectTypeIds</code> value (CMIS 1.1) or a
+ * <code>setAspects</code> extension (CMIS 1.0). Aspects without a known type
+ * are left out of the type id; they are kept by id in the secondary type ids
+ * on CMIS 1.1 and are left alone on CMIS 1.0. Removed aspects are added to
+ * that extension on CMIS 1.0. With local aspect updates enabled, a flush that
+ * only changes aspects is applied to the object without reloading it.
+ * <p>
+ * With diff updates enabled, a flush that doesn't change the aspects only
+ * sends the changed property values, and nothing if no value changed.
+ */
+public class AlfrescoEditSessionImpl implements AlfrescoEditSession
+{
+    private final Session session;
+    private final CmisObject object;
+
+    // aspect id -> true (add) or false (remove), the last change wins
+    private final Map<String, Boolean> aspectChanges = new LinkedHashMap<String, Boolean>();
+    private final Map<String, Object> properties = new LinkedHashMap<String, Object>();
+
+    public AlfrescoEditSessionImpl(Session session, CmisObject object)
+    {
+        this.session = session;
+        this.object = object;
+    }
+
+    public AlfrescoEditSession addAspect(String... id)
+    {
+        if (id == null || id.length == 0)
+        {
+            throw new IllegalArgumentException("Id must be set!");
+        }
+
+        for (String aspectId : id)
+        {
+            recordAspectChange(aspectId, Boolean.TRUE);
+        }
+
+        return this;
+    }
+
+    public AlfrescoEditSession addAspect(String id, Map<String, ?> properties)
+    {
+        addAspect(id);
+        return updateProperties(properties);
+    }
+
+    public AlfrescoEditSession removeAspect(String... id)
+    {
+        if (id == null || id.length == 0)
+        {
+            throw new IllegalArgumentException("Id must be set!");
+        }
+
+        for (String aspectId : id)
+        {
+            recordAspectChange(aspectId, Boolean.FALSE);
+        }
+
+        return this;
+    }
+
+    private void recordAspectChange(String aspectId, Boolean add)
+    {
+        if (aspectId == null)
+        {
+            throw new IllegalArgumentException("Id must be set!");
+        }
+
+        // keep the order of the last change
+        aspectChanges.remove(aspectId);
+        aspectChanges.put(aspectId, add);
+    }
+
+    public AlfrescoEditSession updateProperties(Map<String, ?> properties)
+    {
+        if (properties != null)
+        {
+            this.properties.putAll(properties);
+        }
+
+        return this;
+    }
+
+    public boolean isEmpty()
+    {
+        return aspectChanges.isEmpty() && properties.isEmpty();
+    }
+
+    public CmisObject flush()
+    {
+        if (isEmpty())
+        {
+            return object;
+        }
+
+        AlfrescoAspectRegistry registry = AlfrescoAspectRegistry.get(session);
+        AlfrescoAspectStrategy strategy = AlfrescoUtils.getAspectStrategy(session);
+        AlfrescoAspectSet current = registry.internAspectSet(strategy.getAspectIds(object));
+
+        // compute the final aspects, including aspects without a known type
+        Set<String> currentIds = new LinkedHashSet<String>(current.getIds());
+        Set<String> aspectIds = new LinkedHashSet<String>(currentIds);
+        List<String> addedAspectIds = new ArrayList<String>();
+        List<String> removedAspectIds = new ArrayList<String>();
+        for (Map.Entry<String, Boolean> change : aspectChanges.entrySet())
+        {
+            if (change.getValue().booleanValue())
+            {
+                if (aspectIds.add(change.getKey()))
+                {
+                    addedAspectIds.add(change.getKey());
+                }
+            } else if (aspectIds.remove(change.getKey()))
+            {
+                removedAspectIds.add(change.getKey());
+                addedAspectIds.remove(change.getKey());
+            }
+        }
+
+        Set<Updatability> updatability = EnumSet.of(Updatability.READWRITE);
+        if (Boolean.TRUE.equals(object.getPropertyValue(PropertyIds.IS_PRIVATE_WORKING_COPY)))
+        {
+            updatability.add(Updatability.WHENCHECKEDOUT);
+        }
+
+        Properties cmisProperties;
+        if (AlfrescoUtils.isDiffUpdates(session) && aspectIds.equals(currentIds))
+        {
+            // the aspects don't change, only send the changed values
+            Map<String, Object> changedProperties = AlfrescoUtils.getChangedProperties(object, properties);
+            if (changedProperties.isEmpty())
+            {
+                aspectChanges.clear();
+                properties.clear();
+                return object;
+            }
+
+            cmisProperties = ((AlfrescoObjectFactoryImpl) session.getObjectFactory()).convertChangedProperties(
+                    changedProperties, object.getType(), object.getSecondaryTypes(), current, updatability);
+        } else
+        {
+            // only aspects with a known type can be part of the type id
+            List<String> knownAspectIds = new ArrayList<String>(aspectIds.size());
+            for (String aspectId : aspectIds)
+            {
+                if (registry.findAspectType(aspectId) != null)
+                {
+                    knownAspectIds.add(aspectId);
+                }
+            }
+
+            // convert type, aspects and properties in one go
+            Map<String, Object> newProperties = new LinkedHashMap<String, Object>(properties);
+            newProperties.put(PropertyIds.OBJECT_TYPE_ID,
+                    registry.internTypeId(AlfrescoTypeId.create(object.getType().getId(), knownAspectIds)).getValue());
+
+            cmisProperties = session.getObjectFactory().convertProperties(newProperties, null, null, updatability);
+
+            if (strategy instanceof AlfrescoCmis10AspectStrategy)
+            {
+                // unknown aspects are left alone, unless they are removed
+                if (!removedAspectIds.isEmpty())
+                {
+                    addAspectsToRemove(cmisProperties, removedAspectIds);
+                }
+            } else if (knownAspectIds.size() < aspectIds.size() && cmisProperties instanceof MutableProperties)
+            {
+                // the secondary type ids replace all aspects, keep the unknown ones
+                ((MutableProperties) cmisProperties).addProperty(new PropertyIdImpl(
+                        PropertyIds.SECONDARY_OBJECT_TYPE_IDS, new ArrayList<String>(aspectIds)));
+            }
+        }
+
+        // one update
+        String repId = session.getRepositoryInfo().getId();
+        String changeToken = object.getChangeToken();
+        Holder<String> objectIdHolder = new Holder<String>(object.getId());
+        Holder<String> changeTokenHolder = new Holder<String>(changeToken);
+        session.getBinding().getObjectService()
+                .updateProperties(repId, objectIdHolder, changeTokenHolder, cmisProperties, null);
+
+        // the repository also applies the mandatory aspects of the added aspects
+        AlfrescoAspectSet updated = registry.predictAspectSet(object.getType(),
+                registry.internAspectSet(new ArrayList<String>(aspectIds)), addedAspectIds);
+        String newChangeToken = changeTokenHolder.getValue();
+        AlfrescoAspectsImpl.AspectUpdate update = new AlfrescoAspectsImpl.AspectUpdate(updated,
+                new LinkedHashMap<String, Object>(properties), objectIdHolder.getValue(),
+                (newChangeToken == null || newChangeToken.equals(changeToken)) ? null : newChangeToken);
+
+        aspectChanges.clear();
+        properties.clear();
+
+        // pure aspect changes are applied locally, property values are reloaded
+        if (object instanceof AlfrescoDocumentImpl)
+        {
+            return ((AlfrescoDocumentImpl) object).applyAspectUpdate(update);
+        } else if (object instanceof AlfrescoFolderImpl)
+        {
+            return ((AlfrescoFolderImpl) object).applyAspectUpdate(update);
+        }
+
+        if (!object.getId().equals(objectIdHolder.getValue()))
+        {
+            return session.getObject(objectIdHolder.getValue());
+        }
+
+        object.refresh();
+        return object;
+    }
+
+    private static void addAspectsToRemove(Properties cmisProperties, List<String> removedAspectIds)
+    {
+        List<CmisExtensionElement> extensions = new ArrayList<CmisExtensionElement>();
+        List<CmisExtensionElement> setAspectsChildren = new ArrayList<CmisExtensionElement>();
+
+        if (cmisProperties.getExtensions() != null)
+        {
+            for (CmisExtensionElement extension : cmisProperties.getExtensions())
+            {
+                if (AlfrescoUtils.ALFRESCO_NAMESPACE.equals(extension.getNamespace())
+                        && AlfrescoUtils.SET_ASPECTS.equals(extension.getName()))
+                {
+                    setAspectsChildren.addAll(extension.getChildren());
+                } else
+                {
+                    extensions.add(extension);
+                }
+            }
+        }
+
+        for (String aspectId : removedAspectIds)
+        {
+            setAspectsChildren.add(AlfrescoUtils.createAspectsToRemoveExtension(aspectId));
+        }
+
+        extensions.add(AlfrescoUtils.createSetAspectsExtension(setAspectsChildren));
+        cmisProperties.setExtensions(extensions);
+    }
+}
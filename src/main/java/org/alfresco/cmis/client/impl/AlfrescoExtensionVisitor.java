@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+
+/**
+ * Receives the parts of the Alfresco aspect extension of an object.
+ * <p>
+ * {@link AlfrescoUtils#visitAlfrescoExtensions(java.util.List, AlfrescoExtensionVisitor)}
+ * walks the extension tree once, in document order, and calls the visitor for
+ * every part. No intermediate collections are created.
+ */
+public interface AlfrescoExtensionVisitor
+{
+    /**
+     * Called for every <code>appliedAspects</code> element.
+     *
+     * @param aspectId the aspect id
+     */
+    void visitAppliedAspect(String aspectId);
+
+    /**
+     * Called for every <code>properties</code> element.
+     *
+     * @param properties the element, its children are the property elements
+     */
+    void visitProperties(CmisExtensionElement properties);
+}
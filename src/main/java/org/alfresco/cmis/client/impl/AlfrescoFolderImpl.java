@@ -16,8 +16,12 @@
 package org.alfresco.cmis.client.impl;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+import org.alfresco.cmis.client.AlfrescoEditSession;
 import org.alfresco.cmis.client.AlfrescoFolder;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
 import org.apache.chemistry.opencmis.client.api.ObjectId;
@@ -31,7 +35,10 @@ public class AlfrescoFolderImpl extends FolderImpl implements AlfrescoFolder
 {
     private static final long serialVersionUID = 1L;
 
+    // aspect changes call the repository without the object lock and are
+    // applied under the write lock
     protected AlfrescoAspectsImpl aspects;
+    private final AlfrescoAsyncQueue asyncQueue = new AlfrescoAsyncQueue();
 
     public AlfrescoFolderImpl(SessionImpl session, ObjectType objectType, ObjectData objectData,
             OperationContext context)
@@ -63,191 +70,225 @@ public class AlfrescoFolderImpl extends FolderImpl implements AlfrescoFolder
     @Override
     public ObjectId updateProperties(Map<String, ?> properties, boolean refresh)
     {
-        return super.updateProperties(
-                AlfrescoUtils.preparePropertiesForUpdate(properties, getType(), getAspects()), refresh);
+        if (AlfrescoUtils.isDiffUpdates(getSession()))
+        {
+            return AlfrescoUtils.updateChangedProperties(getSession(), this, getAspectSet(), properties, refresh);
+        }
+
+        return AlfrescoUtils.updateProperties(getSession(), this,
+                AlfrescoUtils.preparePropertiesForUpdate(properties, getType(), getAspectSet()), refresh);
     }
 
-    public boolean hasAspect(String id)
+    /**
+     * Reloads this folder. Unlike {@link FolderImpl#refresh()}, the folder is
+     * only locked while the fetched state is applied.
+     */
+    @Override
+    public void refresh()
     {
-        readLock();
+        OperationContext context = getCreationContext();
+        ObjectData objectData = AlfrescoUtils.getObjectData(getSession(), getId(), context);
+        ObjectType type = getSession().getTypeDefinition(getType().getId());
+
+        writeLock();
         try
         {
-            return aspects.hasAspect(id);
+            initialize(getSession(), type, objectData, context);
         } finally
         {
-            readUnlock();
+            writeUnlock();
         }
     }
 
-    public boolean hasAspect(ObjectType type)
+    /**
+     * Returns the shared aspect set of this folder.
+     * 
+     * @return the interned aspect set
+     */
+    public AlfrescoAspectSet getAspectSet()
     {
         readLock();
         try
         {
-            return aspects.hasAspect(type);
+            return aspects.getAspectSet();
         } finally
         {
             readUnlock();
         }
     }
 
-    public Collection<ObjectType> getAspects()
+    public AlfrescoEditSession edit()
+    {
+        return new AlfrescoEditSessionImpl(getSession(), this);
+    }
+
+    public boolean hasAspect(String id)
     {
         readLock();
         try
         {
-            return aspects.getAspects();
+            return aspects.hasAspect(id);
         } finally
         {
             readUnlock();
         }
     }
 
-    public ObjectType findAspect(String propertyId)
+    public boolean hasAspect(ObjectType type)
     {
         readLock();
         try
         {
-            return aspects.findAspect(propertyId);
+            return aspects.hasAspect(type);
         } finally
         {
             readUnlock();
         }
     }
 
-    public CmisObject addAspect(String... id)
+    public Collection<ObjectType> getAspects()
     {
-		CmisObject ret = this;
-		
         readLock();
         try
         {
-        	ret = aspects.addAspect(id);
+            return aspects.getAspects();
         } finally
         {
             readUnlock();
         }
-        refresh();
-        
-		return ret;
     }
 
-    public CmisObject addAspect(ObjectType... type)
+    public ObjectType findAspect(String propertyId)
     {
-		CmisObject ret = this;
-		
         readLock();
         try
         {
-        	ret = aspects.addAspect(type);
+            return aspects.findAspect(propertyId);
         } finally
         {
             readUnlock();
         }
-        refresh();
-        
-		return ret;
+    }
+
+    public CmisObject addAspect(String... id)
+    {
+        return applyAspectUpdate(aspects.sendAddAspect(id, null));
+    }
+
+    public CmisObject addAspect(ObjectType... type)
+    {
+        return applyAspectUpdate(aspects.sendAddAspect(type, null));
     }
 
     public CmisObject addAspect(ObjectType type, Map<String, ?> properties)
     {
-		CmisObject ret = this;
-		
-        readLock();
-        try
-        {
-        	ret = aspects.addAspect(type, properties);
-        } finally
-        {
-            readUnlock();
-        }
-        refresh();
-        
-		return ret;
+        return applyAspectUpdate(aspects.sendAddAspect(new ObjectType[] { type }, properties));
     }
 
     public CmisObject addAspect(ObjectType[] type, Map<String, ?> properties)
     {
-		CmisObject ret = this;
-		
-        readLock();
-        try
-        {
-        	ret = aspects.addAspect(type, properties);
-        } finally
-        {
-            readUnlock();
-        }
-        refresh();
-        
-		return ret;
+        return applyAspectUpdate(aspects.sendAddAspect(type, properties));
     }
 
     public CmisObject addAspect(String id, Map<String, ?> properties)
     {
-		CmisObject ret = this;
-		
-        readLock();
-        try
-        {
-        	ret = aspects.addAspect(id, properties);
-        } finally
-        {
-            readUnlock();
-        }
-        refresh();
-        
-		return ret;
+        return applyAspectUpdate(aspects.sendAddAspect(new String[] { id }, properties));
     }
 
     public CmisObject addAspect(String[] id, Map<String, ?> properties)
     {
-		CmisObject ret = this;
-		
-        readLock();
-        try
-        {
-        	ret = aspects.addAspect(id, properties);
-        } finally
-        {
-            readUnlock();
-        }
-        refresh();
-        
-		return ret;
+        return applyAspectUpdate(aspects.sendAddAspect(id, properties));
     }
 
     public CmisObject removeAspect(String... id)
     {
-		CmisObject ret = this;
-		
-        readLock();
+        return applyAspectUpdate(aspects.sendRemoveAspect(id));
+    }
+
+    public CmisObject removeAspect(ObjectType... type)
+    {
+        return applyAspectUpdate(aspects.sendRemoveAspect(type));
+    }
+
+    CmisObject applyAspectUpdate(AlfrescoAspectsImpl.AspectUpdate update)
+    {
+        AlfrescoAspectsImpl current;
+        boolean applied;
+        writeLock();
         try
         {
-        	ret = aspects.removeAspect(id);
+            current = aspects;
+            applied = current.applyLocally(update);
         } finally
         {
-            readUnlock();
+            writeUnlock();
         }
-        refresh();
-        
-		return ret;
+
+        if (!applied)
+        {
+            refresh();
+        }
+
+        return current.getUpdatedObject(update);
     }
 
-    public CmisObject removeAspect(ObjectType... type)
+    public CompletableFuture<CmisObject> addAspectAsync(String... id)
     {
-		CmisObject ret = this;
-		
-        readLock();
-        try
+        final String[] ids = (id == null ? null : id.clone());
+
+        return asyncQueue.submit(getSession(), new Supplier<CmisObject>()
         {
-        	ret = aspects.removeAspect(type);
-        } finally
+            public CmisObject get()
+            {
+                return addAspect(ids);
+            }
+        });
+    }
+
+    public CompletableFuture<CmisObject> addAspectAsync(final String id, Map<String, ?> properties)
+    {
+        final Map<String, Object> newProperties = (properties == null ? null : new LinkedHashMap<String, Object>(
+                properties));
+
+        return asyncQueue.submit(getSession(), new Supplier<CmisObject>()
         {
-            readUnlock();
-        }
-        refresh();
-        
-		return ret;
+            public CmisObject get()
+            {
+                return addAspect(id, newProperties);
+            }
+        });
+    }
+
+    public CompletableFuture<CmisObject> removeAspectAsync(String... id)
+    {
+        final String[] ids = (id == null ? null : id.clone());
+
+        return asyncQueue.submit(getSession(), new Supplier<CmisObject>()
+        {
+            public CmisObject get()
+            {
+                return removeAspect(ids);
+            }
+        });
+    }
+
+    public CompletableFuture<CmisObject> updatePropertiesAsync(Map<String, ?> properties)
+    {
+        return AlfrescoUtils.updatePropertiesAsync(getSession(), asyncQueue, this, properties);
+    }
+
+    public long getPropertyAsLong(String id, long defaultValue)
+    {
+        return AlfrescoUtils.getPropertyAsLong(this, id, defaultValue);
+    }
+
+    public double getPropertyAsDouble(String id, double defaultValue)
+    {
+        return AlfrescoUtils.getPropertyAsDouble(this, id, defaultValue);
+    }
+
+    public boolean getPropertyAsBoolean(String id, boolean defaultValue)
+    {
+        return AlfrescoUtils.getPropertyAsBoolean(this, id, defaultValue);
     }
-}
\ No newline at end of file
+}
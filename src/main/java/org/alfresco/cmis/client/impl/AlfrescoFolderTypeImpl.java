@@ -129,6 +129,11 @@ public class AlfrescoFolderTypeImpl implements AlfrescoFolderType
 
     public Map<String, PropertyDefinition<?>> getPropertyDefinitions()
     {
+        if (folder instanceof AlfrescoFolderImpl)
+        {
+            // shared by all folders with the same type and aspects
+            return ((AlfrescoFolderImpl) folder).getAspectSet().getPropertyDefinitions(folder.getType());
+        }
 
         Map<String, PropertyDefinition<?>> result = new HashMap<String, PropertyDefinition<?>>(folder.getType()
                 .getPropertyDefinitions());
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.runtime.PropertyImpl;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+
+/**
+ * Aspect property that keeps the raw CMIS 1.0 extension element and converts
+ * its values the first time they are read.
+ *
+ * @param <T> the property value type
+ */
+public class AlfrescoLazyProperty<T> extends PropertyImpl<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    private transient AlfrescoPropertyConverter<T> converter;
+    private transient volatile CmisExtensionElement rawProperty;
+
+    public AlfrescoLazyProperty(AlfrescoPropertyConverter<T> converter, CmisExtensionElement rawProperty)
+    {
+        super(converter.getPropertyDefinition(), Collections.<T> emptyList());
+        this.converter = converter;
+        this.rawProperty = rawProperty;
+    }
+
+    /**
+     * Returns whether the values have been converted.
+     *
+     * @return <code>true</code> if the raw extension element has been converted
+     */
+    public boolean isConverted()
+    {
+        return rawProperty == null;
+    }
+
+    private void convert()
+    {
+        if (rawProperty != null)
+        {
+            synchronized (this)
+            {
+                if (rawProperty != null)
+                {
+                    super.setValues(converter.convertValues(rawProperty));
+                    converter = null;
+                    rawProperty = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<T> getValues()
+    {
+        convert();
+        return super.getValues();
+    }
+
+    @Override
+    public T getFirstValue()
+    {
+        convert();
+        return super.getFirstValue();
+    }
+
+    @Override
+    public void setValues(List<T> values)
+    {
+        synchronized (this)
+        {
+            converter = null;
+            rawProperty = null;
+            super.setValues(values);
+        }
+    }
+
+    @Override
+    public void setValue(T value)
+    {
+        synchronized (this)
+        {
+            converter = null;
+            rawProperty = null;
+            super.setValue(value);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        convert();
+        return super.toString();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        convert();
+        out.defaultWriteObject();
+    }
+}
@@ -15,18 +15,24 @@
  */
 package org.alfresco.cmis.client.impl;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
-import javax.xml.datatype.DatatypeFactory;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.alfresco.cmis.client.AlfrescoSessionParameter;
 import org.alfresco.cmis.client.type.AlfrescoDocumentType;
 import org.alfresco.cmis.client.type.AlfrescoFolderType;
 import org.alfresco.cmis.client.type.AlfrescoItemType;
@@ -39,32 +45,51 @@ import org.apache.chemistry.opencmis.client.api.OperationContext;
 import org.apache.chemistry.opencmis.client.api.Property;
 import org.apache.chemistry.opencmis.client.api.SecondaryType;
 import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.api.Tree;
 import org.apache.chemistry.opencmis.client.runtime.ItemImpl;
 import org.apache.chemistry.opencmis.client.runtime.PolicyImpl;
 import org.apache.chemistry.opencmis.client.runtime.RelationshipImpl;
 import org.apache.chemistry.opencmis.client.runtime.SessionImpl;
 import org.apache.chemistry.opencmis.client.runtime.repository.ObjectFactoryImpl;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
-import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
 import org.apache.chemistry.opencmis.commons.data.ObjectData;
 import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.data.PropertyData;
+import org.apache.chemistry.opencmis.commons.data.PropertyId;
 import org.apache.chemistry.opencmis.commons.definitions.DocumentTypeDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.FolderTypeDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.ItemTypeDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.PolicyTypeDefinition;
-import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.RelationshipTypeDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.SecondaryTypeDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
-import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
 import org.apache.chemistry.opencmis.commons.enums.Updatability;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
 
 public class AlfrescoObjectFactoryImpl extends ObjectFactoryImpl
 {
     private static final long serialVersionUID = 1L;
 
+    public static final int DEFAULT_ASYNC_THREADS = 16;
+    public static final int ASYNC_QUEUE_SIZE = 1000;
+
     private Session session = null;
+    private transient volatile AlfrescoAspectRegistry aspectRegistry = null;
+    private transient volatile boolean typesBootstrapped = false;
+    private final ReentrantLock bootstrapLock = new ReentrantLock();
+    private transient volatile AlfrescoAspectStrategy aspectStrategy = null;
+    private boolean lazyAspects = false;
+    private boolean compactAspects = false;
+    private boolean lazyProperties = false;
+    private boolean localAspectUpdates = false;
+    private boolean diffUpdates = false;
+    private boolean prefetchAspects = false;
+    private String typeSnapshotFile = null;
+    private long unknownAspectTtl = AlfrescoAspectRegistry.DEFAULT_UNKNOWN_ASPECT_TTL;
+    private int asyncThreads = DEFAULT_ASYNC_THREADS;
+    private transient volatile Executor asyncExecutor = null;
 
     /**
      * Default constructor.
@@ -101,6 +126,435 @@ public class AlfrescoObjectFactoryImpl extends ObjectFactoryImpl
     {
         super.initialize(session, parameters);
         this.session = session;
+        if (parameters != null)
+        {
+            this.lazyAspects = Boolean.parseBoolean(parameters.get(AlfrescoSessionParameter.LAZY_ASPECTS));
+            this.compactAspects = Boolean.parseBoolean(parameters.get(AlfrescoSessionParameter.COMPACT_ASPECTS));
+            this.lazyProperties = Boolean.parseBoolean(parameters.get(AlfrescoSessionParameter.LAZY_PROPERTIES));
+            this.localAspectUpdates = Boolean.parseBoolean(parameters
+                    .get(AlfrescoSessionParameter.LOCAL_ASPECT_UPDATES));
+            this.diffUpdates = Boolean.parseBoolean(parameters.get(AlfrescoSessionParameter.DIFF_UPDATES));
+            this.prefetchAspects = Boolean.parseBoolean(parameters.get(AlfrescoSessionParameter.PREFETCH_ASPECTS));
+            this.typeSnapshotFile = parameters.get(AlfrescoSessionParameter.TYPE_SNAPSHOT_FILE);
+
+            String threads = parameters.get(AlfrescoSessionParameter.ASYNC_THREADS);
+            if (threads != null)
+            {
+                try
+                {
+                    this.asyncThreads = Integer.parseInt(threads.trim());
+                } catch (NumberFormatException e)
+                {
+                    throw new IllegalArgumentException("Invalid value for " + AlfrescoSessionParameter.ASYNC_THREADS
+                            + ": " + threads);
+                }
+                if (asyncThreads < 1)
+                {
+                    throw new IllegalArgumentException("Invalid value for " + AlfrescoSessionParameter.ASYNC_THREADS
+                            + ": " + threads);
+                }
+            }
+
+            String ttl = parameters.get(AlfrescoSessionParameter.UNKNOWN_ASPECT_TTL);
+            if (ttl != null)
+            {
+                try
+                {
+                    this.unknownAspectTtl = Long.parseLong(ttl.trim());
+                } catch (NumberFormatException e)
+                {
+                    throw new IllegalArgumentException("Invalid value for " + AlfrescoSessionParameter.UNKNOWN_ASPECT_TTL
+                            + ": " + ttl);
+                }
+            }
+        }
+
+        this.aspectRegistry = new AlfrescoAspectRegistry(session, compactAspects, unknownAspectTtl);
+    }
+
+    /**
+     * Returns whether documents and folders resolve their aspect types on first use.
+     * 
+     * @return <code>true</code> if aspect types are resolved lazily
+     */
+    public boolean isLazyAspects()
+    {
+        return lazyAspects;
+    }
+
+    /**
+     * Returns whether documents and folders apply their own aspect changes
+     * instead of reloading themselves.
+     * 
+     * @return <code>true</code> if aspect changes are applied locally
+     */
+    public boolean isLocalAspectUpdates()
+    {
+        return localAspectUpdates;
+    }
+
+    /**
+     * Returns whether documents and folders only send changed property values.
+     * 
+     * @return <code>true</code> if updates are diffed against the loaded values
+     */
+    public boolean isDiffUpdates()
+    {
+        return diffUpdates;
+    }
+
+    /**
+     * Returns the executor of asynchronous aspect and property updates. The
+     * default executor is created on first use. It runs at most
+     * {@link AlfrescoSessionParameter#ASYNC_THREADS} updates at the same time,
+     * on virtual threads on Java 21 and later and on daemon threads on older
+     * JVMs.
+     * 
+     * @return the executor
+     */
+    public Executor getAsyncExecutor()
+    {
+        Executor executor = asyncExecutor;
+        if (executor == null)
+        {
+            synchronized (this)
+            {
+                executor = asyncExecutor;
+                if (executor == null)
+                {
+                    executor = createAsyncExecutor(asyncThreads);
+                    asyncExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Sets the executor of asynchronous aspect and property updates. The
+     * caller owns the executor and has to shut it down.
+     * 
+     * @param executor
+     *            the executor, or <code>null</code> to use the default
+     *            executor
+     */
+    public void setAsyncExecutor(Executor executor)
+    {
+        asyncExecutor = executor;
+    }
+
+    /**
+     * Creates an executor that runs at most the given number of updates at
+     * the same time. Its threads are virtual threads or daemon threads and it
+     * is never shut down, idle threads end after a minute. At most
+     * {@link #ASYNC_QUEUE_SIZE} updates wait for a thread, further updates
+     * run in the calling thread.
+     */
+    static Executor createAsyncExecutor(int threads)
+    {
+        ThreadFactory threadFactory = createVirtualThreadFactory();
+        if (threadFactory == null)
+        {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            threadFactory = new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "alfresco-cmis-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(ASYNC_QUEUE_SIZE), threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    /**
+     * Returns a factory of virtual threads, or <code>null</code> if the JVM
+     * doesn't support them.
+     */
+    private static ThreadFactory createVirtualThreadFactory()
+    {
+        // virtual threads are available from Java 21, the code is compiled for Java 17
+        try
+        {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+                    "alfresco-cmis-async-", Long.valueOf(1));
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException e)
+        {
+            // no virtual threads
+        } catch (Exception e)
+        {
+            // virtual threads not usable, for example disabled by a security manager
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the aspect strategy for the CMIS version of the repository. The
+     * strategy is chosen on first use, because the repository info is not
+     * available yet when the factory is initialized.
+     * 
+     * @return the aspect strategy
+     */
+    public AlfrescoAspectStrategy getAspectStrategy()
+    {
+        AlfrescoAspectStrategy strategy = aspectStrategy;
+        if (strategy == null)
+        {
+            strategy = AlfrescoUtils.createAspectStrategy(session, lazyProperties);
+            aspectStrategy = strategy;
+        }
+
+        return strategy;
+    }
+
+    /**
+     * Returns the aspect registry of this session.
+     * 
+     * @return the aspect registry
+     */
+    public AlfrescoAspectRegistry getAspectRegistry()
+    {
+        AlfrescoAspectRegistry registry = aspectRegistry;
+        if (registry == null)
+        {
+            synchronized (this)
+            {
+                if (aspectRegistry == null)
+                {
+                    aspectRegistry = new AlfrescoAspectRegistry(session, compactAspects, unknownAspectTtl);
+                }
+                registry = aspectRegistry;
+            }
+        }
+
+        if (!typesBootstrapped)
+        {
+            bootstrapTypes(registry);
+        }
+
+        return registry;
+    }
+
+    /**
+     * Fills the registry once the session is connected. The object factory is
+     * initialized before the session fetches the repository info, so this
+     * cannot happen in {@link #initialize(Session, Map)}.
+     * <p>
+     * One thread bootstraps the types. If a snapshot or the prefetch is
+     * configured, other threads wait for it instead of resolving the types
+     * one by one. The factory monitor is not held.
+     */
+    private void bootstrapTypes(AlfrescoAspectRegistry registry)
+    {
+        if (typeSnapshotFile == null && !prefetchAspects)
+        {
+            typesBootstrapped = true;
+            return;
+        }
+
+        bootstrapLock.lock();
+        try
+        {
+            if (typesBootstrapped || session.getRepositoryInfo() == null)
+            {
+                return;
+            }
+
+            typesBootstrapped = true;
+            loadOrPrefetchTypes(registry);
+        } finally
+        {
+            bootstrapLock.unlock();
+        }
+    }
+
+    private void loadOrPrefetchTypes(AlfrescoAspectRegistry registry)
+    {
+        boolean loaded = (typeSnapshotFile != null) && loadTypeSnapshot(registry, new File(typeSnapshotFile));
+
+        if (prefetchAspects && !loaded && prefetchAspectTypes(registry) && typeSnapshotFile != null
+                && AlfrescoTypeSnapshot.canValidate(session.getRepositoryInfo()) && prefetchObjectTypes(registry))
+        {
+            try
+            {
+                saveTypeSnapshot(new File(typeSnapshotFile));
+            } catch (IOException e)
+            {
+                // the snapshot is an optimization only
+            }
+        }
+    }
+
+    /**
+     * Fetches the complete aspect hierarchy with a single type descendants
+     * call. CMIS 1.1 aspects are the descendants of <code>cmis:secondary</code>,
+     * CMIS 1.0 aspects are the <code>P:</code> descendants of
+     * <code>cmis:policy</code>.
+     * 
+     * @return <code>true</code> if the hierarchy could be fetched
+     */
+    private boolean prefetchAspectTypes(AlfrescoAspectRegistry registry)
+    {
+        AlfrescoAspectStrategy strategy = getAspectStrategy();
+
+        List<ObjectType> aspects = new ArrayList<ObjectType>();
+        try
+        {
+            for (Tree<ObjectType> tree : session.getTypeDescendants(strategy.getAspectRootTypeId(), -1, true))
+            {
+                collectAspectTypes(tree, strategy, aspects);
+            }
+        } catch (CmisBaseException e)
+        {
+            // aspects will be resolved one by one
+            return false;
+        }
+
+        registry.registerAll(aspects);
+
+        return true;
+    }
+
+    /**
+     * Fetches the document and folder type hierarchies, so that a snapshot
+     * contains them together with the aspects.
+     * 
+     * @return <code>true</code> if the hierarchies could be fetched
+     */
+    private boolean prefetchObjectTypes(AlfrescoAspectRegistry registry)
+    {
+        List<ObjectType> types = new ArrayList<ObjectType>();
+        try
+        {
+            for (String baseTypeId : new String[] { BaseTypeId.CMIS_DOCUMENT.value(), BaseTypeId.CMIS_FOLDER.value() })
+            {
+                types.add(session.getTypeDefinition(baseTypeId));
+                for (Tree<ObjectType> tree : session.getTypeDescendants(baseTypeId, -1, true))
+                {
+                    collectObjectTypes(tree, types);
+                }
+            }
+        } catch (CmisBaseException e)
+        {
+            return false;
+        }
+
+        for (ObjectType type : types)
+        {
+            registry.registerObjectType(type);
+        }
+
+        return true;
+    }
+
+    private void collectObjectTypes(Tree<ObjectType> tree, List<ObjectType> types)
+    {
+        if (tree.getItem() != null)
+        {
+            types.add(tree.getItem());
+        }
+
+        if (tree.getChildren() != null)
+        {
+            for (Tree<ObjectType> child : tree.getChildren())
+            {
+                collectObjectTypes(child, types);
+            }
+        }
+    }
+
+    private void collectAspectTypes(Tree<ObjectType> tree, AlfrescoAspectStrategy strategy, List<ObjectType> aspects)
+    {
+        ObjectType type = tree.getItem();
+        if (type != null && strategy.isAspectType(type))
+        {
+            aspects.add(type);
+        }
+
+        if (tree.getChildren() != null)
+        {
+            for (Tree<ObjectType> child : tree.getChildren())
+            {
+                collectAspectTypes(child, strategy, aspects);
+            }
+        }
+    }
+
+    /**
+     * Loads a type definition snapshot into the aspect registry.
+     * 
+     * @param file the snapshot file
+     * @return <code>true</code> if the snapshot was loaded, <code>false</code>
+     *         if it does not exist or does not match the repository
+     */
+    public boolean loadTypeSnapshot(File file)
+    {
+        return loadTypeSnapshot(getAspectRegistry(), file);
+    }
+
+    private boolean loadTypeSnapshot(AlfrescoAspectRegistry registry, File file)
+    {
+        List<TypeDefinition> typeDefinitions = AlfrescoTypeSnapshot.load(file, session.getRepositoryInfo());
+        if (typeDefinitions == null)
+        {
+            return false;
+        }
+
+        List<ObjectType> aspects = new ArrayList<ObjectType>();
+        for (TypeDefinition typeDefinition : typeDefinitions)
+        {
+            ObjectType type = convertTypeDefinition(typeDefinition);
+            if (type.getBaseTypeId() == BaseTypeId.CMIS_SECONDARY || type.getBaseTypeId() == BaseTypeId.CMIS_POLICY)
+            {
+                aspects.add(type);
+            } else
+            {
+                registry.registerObjectType(type);
+            }
+        }
+        registry.registerAll(aspects);
+
+        return true;
+    }
+
+    /**
+     * Writes all types known to this session to the snapshot file configured
+     * with {@link AlfrescoSessionParameter#TYPE_SNAPSHOT_FILE}.
+     * 
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void saveTypeSnapshot() throws IOException
+    {
+        if (typeSnapshotFile == null)
+        {
+            throw new IllegalStateException("No type snapshot file configured!");
+        }
+
+        saveTypeSnapshot(new File(typeSnapshotFile));
+    }
+
+    /**
+     * Writes all types known to this session to a snapshot file.
+     * 
+     * @param file the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void saveTypeSnapshot(File file) throws IOException
+    {
+        AlfrescoTypeSnapshot.save(file, session.getRepositoryInfo(), getAspectRegistry().getRegisteredTypes());
     }
 
     public Properties convertProperties(Map<String, ?> properties, ObjectType type, Collection<SecondaryType> secondaryTypes, Set<Updatability> updatabilityFilter)
@@ -130,29 +584,12 @@ public class AlfrescoObjectFactoryImpl extends ObjectFactoryImpl
         }
 
         // CMIS 1.0, secondary types/aspects are in the objectTypeId
-        ObjectType objectType = null;
-        List<ObjectType> aspectTypes = new ArrayList<ObjectType>();
-        List<String> secondaryTypesPropValue = new ArrayList<String>();
-        if (typeIdStr.indexOf(',') == -1)
-        {
-            objectType = session.getTypeDefinition(typeIdStr);
-        } else
-        {
-            String[] typeIds = typeIdStr.split(",");
-            objectType = session.getTypeDefinition(typeIds[0].trim());
-
-            for (int i = 1; i < typeIds.length; i++)
-            {
-            	String secondaryTypeId = typeIds[i].trim();
-            	secondaryTypesPropValue.add(secondaryTypeId);
-                aspectTypes.add(session.getTypeDefinition(secondaryTypeId));
-            }
-        }
+        AlfrescoPropertyPlan plan = getAspectRegistry().getPropertyPlan(typeIdStr);
+        ObjectType objectType = plan.getObjectType();
 
         // split type properties from aspect properties
         Map<String, Object> typeProperties = new HashMap<String, Object>();
         Map<String, Object> aspectProperties = new HashMap<String, Object>();
-        Map<String, PropertyDefinition<?>> aspectPropertyDefinition = new HashMap<String, PropertyDefinition<?>>();
         for (Map.Entry<String, ?> property : properties.entrySet())
         {
             if ((property == null) || (property.getKey() == null))
@@ -169,29 +606,14 @@ public class AlfrescoObjectFactoryImpl extends ObjectFactoryImpl
                 {
                     typeProperties.put(id, objectType.getId());
                 }
-            } else if (objectType.getPropertyDefinitions().containsKey(id))
+            } else if (plan.isTypeProperty(id))
             {
                 typeProperties.put(id, value);
             } else
             {
                 aspectProperties.put(id, value);
 
-                for (ObjectType aspectType : aspectTypes)
-                {
-                    if (aspectType.getPropertyDefinitions() == null)
-                    {
-                        continue;
-                    }
-
-                    PropertyDefinition<?> propDef = aspectType.getPropertyDefinitions().get(id);
-                    if (propDef != null)
-                    {
-                        aspectPropertyDefinition.put(id, propDef);
-                        break;
-                    }
-                }
-
-                if (!aspectPropertyDefinition.containsKey(id))
+                if (plan.getAspectPropertyDefinition(id) == null)
                 {
                     throw new IllegalArgumentException("Property '" + id
                             + "' is neither an object type property nor an aspect property!");
@@ -199,142 +621,68 @@ public class AlfrescoObjectFactoryImpl extends ObjectFactoryImpl
             }
         }
 
-        if(session.getRepositoryInfo().getCmisVersion().equals(CmisVersion.CMIS_1_1))
-        {
-	        // cmis 1.1 - secondary types
-	        typeProperties.put(PropertyIds.SECONDARY_OBJECT_TYPE_IDS, secondaryTypesPropValue);
-        }
+        AlfrescoAspectStrategy strategy = getAspectStrategy();
+        strategy.addAspectProperties(typeProperties, plan, aspectProperties);
 
         // prepare type properties
         Properties result = super.convertProperties(typeProperties, type, secondaryTypes, updatabilityFilter);
 
-        if(session.getRepositoryInfo().getCmisVersion().equals(CmisVersion.CMIS_1_0))
-        {
-	        // prepare extensions
-	        List<CmisExtensionElement> alfrescoExtensionList = new ArrayList<CmisExtensionElement>();
-	
-	        // prepare aspects
-	        for (ObjectType aspectType : aspectTypes)
-	        {
-	            alfrescoExtensionList.add(AlfrescoUtils.createAspectsToAddExtension(aspectType));
-	        }
-	
-	        // prepare aspect properties
-	        if (!aspectProperties.isEmpty())
-	        {
-	            List<CmisExtensionElement> propertrtyExtensionList = new ArrayList<CmisExtensionElement>();
-	
-	            for (Map.Entry<String, Object> property : aspectProperties.entrySet())
-	            {
-	                PropertyDefinition<?> propDef = aspectPropertyDefinition.get(property.getKey());
-	                if (propDef == null)
-	                {
-	                    throw new IllegalArgumentException("Unknown aspect property: " + property.getKey());
-	                }
-	
-	                CmisExtensionElement element = AlfrescoUtils.createAspectPropertyExtension(propDef,
-	                        property.getValue());
-	                if (element != null)
-	                {
-	                    propertrtyExtensionList.add(element);
-	                }
-	            }
-	
-	            alfrescoExtensionList.add(AlfrescoUtils.createAspectPropertiesExtension(propertrtyExtensionList));
-	        }
-	
-	        if (!alfrescoExtensionList.isEmpty())
-	        {
-	            result.setExtensions(Collections.singletonList(AlfrescoUtils
-	                    .createSetAspectsExtension(alfrescoExtensionList)));
-	        }
-        }
+        strategy.addAspectExtensions(result, plan, aspectProperties);
+
+        return result;
+    }
+
+    /**
+     * Converts property values of an existing object without its aspect ids.
+     * The aspects are only used to find the aspect property definitions.
+     * 
+     * @param properties the property values, without <code>cmis:objectTypeId</code>
+     * @param type the object type
+     * @param secondaryTypes the secondary types of the object, may be
+     *            <code>null</code>
+     * @param aspects the aspects of the object
+     * @param updatabilityFilter the updatability filter
+     * @return the converted properties
+     */
+    public Properties convertChangedProperties(Map<String, ?> properties, ObjectType type,
+            Collection<SecondaryType> secondaryTypes, AlfrescoAspectSet aspects, Set<Updatability> updatabilityFilter)
+    {
+        Map<String, Object> newProperties = new LinkedHashMap<String, Object>(properties);
+        newProperties.put(PropertyIds.OBJECT_TYPE_ID, aspects.getTypeId(type).getValue());
+
+        Properties result = convertProperties(newProperties, type, secondaryTypes, updatabilityFilter);
+        getAspectStrategy().removeAspectIds(result);
 
         return result;
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public Map<String, Property<?>> convertProperties(ObjectType objectType, Collection<SecondaryType> secondaryTypes, Properties properties)
     {
         Map<String, Property<?>> result = super.convertProperties(objectType, secondaryTypes, properties);
 
-        if(session.getRepositoryInfo().getCmisVersion().equals(CmisVersion.CMIS_1_0))
-        {
-	        // find the Alfresco extensions
-	        List<CmisExtensionElement> alfrescoExtensions = AlfrescoUtils.findAlfrescoExtensions(properties
-	                .getExtensions());
-	
-	        if (alfrescoExtensions == null)
-	        {
-	            // no Alfresco extensions found
-	            return result;
-	        }
-	
-	        // get the aspect types
-	        Collection<ObjectType> aspectTypes = AlfrescoUtils.getAspectTypes(session, alfrescoExtensions);
-	
-	        for (CmisExtensionElement extension : alfrescoExtensions)
-	        {
-	            if (!extension.getName().equals("properties"))
-	            {
-	                continue;
-	            }
-	
-	            for (CmisExtensionElement property : extension.getChildren())
-	            {
-	                String id = property.getAttributes().get("propertyDefinitionId");
-	
-	                // find the aspect type
-	                ObjectType aspectType = AlfrescoUtils.findAspect(aspectTypes, id);
-	                if (aspectType == null)
-	                {
-	                    throw new IllegalArgumentException("Unknown aspect property: " + id);
-	                }
-	
-	                // convert values
-	                PropertyDefinition propDef = aspectType.getPropertyDefinitions().get(id);
-	                List values = new ArrayList();
-	                DatatypeFactory df = null;
-	                try
-	                {
-	                    for (CmisExtensionElement propertyValues : property.getChildren())
-	                    {
-	                        switch (propDef.getPropertyType())
-	                        {
-	                        case BOOLEAN:
-	                            values.add(Boolean.parseBoolean(propertyValues.getValue()));
-	                            break;
-	                        case DATETIME:
-	                            if (df == null)
-	                            {
-	                                df = DatatypeFactory.newInstance();
-	                            }
-	                            values.add(df.newXMLGregorianCalendar(propertyValues.getValue()).toGregorianCalendar());
-	                            break;
-	                        case DECIMAL:
-	                            values.add(new BigDecimal(propertyValues.getValue()));
-	                            break;
-	                        case INTEGER:
-	                            values.add(new BigInteger(propertyValues.getValue()));
-	                            break;
-	                        default:
-	                            values.add(propertyValues.getValue());
-	                        }
-	                    }
-	                } catch (Exception e)
-	                {
-	                    throw new IllegalArgumentException("Aspect conversation exception: " + e.getMessage(), e);
-	                }
-	
-	                // add property
-	                result.put(id, createProperty(propDef, values));
-	            }
-	        }
-        }
+        getAspectStrategy().convertAspectProperties(this, properties, result);
 
         return result;
     }
 
+    @Override
+    public ObjectType getTypeFromObjectData(ObjectData objectData)
+    {
+        if ((objectData == null) || (objectData.getProperties() == null)
+                || (objectData.getProperties().getProperties() == null))
+        {
+            return null;
+        }
+
+        PropertyData<?> typeProperty = objectData.getProperties().getProperties().get(PropertyIds.OBJECT_TYPE_ID);
+        if (!(typeProperty instanceof PropertyId))
+        {
+            return null;
+        }
+
+        return getAspectRegistry().getObjectType((String) typeProperty.getFirstValue());
+    }
+
     public CmisObject convertObject(ObjectData objectData, OperationContext context)
     {
         if (objectData == null)
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.runtime.PropertyImpl;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+
+/**
+ * Aspect property that stores its values as <code>long</code>,
+ * <code>double</code> or <code>boolean</code>.
+ * <p>
+ * The spec values (<code>BigInteger</code>, <code>BigDecimal</code>,
+ * <code>Boolean</code>) are only created when they are read through the
+ * {@link org.apache.chemistry.opencmis.client.api.Property} interface. The
+ * primitive accessors never box. Once the values are replaced with
+ * {@link #setValues(List)} or {@link #setValue(Object)}, the primitive values
+ * are discarded and {@link #isPrimitive()} returns <code>false</code>.
+ *
+ * @param <T> the property value type
+ */
+public abstract class AlfrescoPrimitiveProperty<T> extends PropertyImpl<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    private volatile boolean boxed;
+    private volatile boolean primitive;
+
+    private AlfrescoPrimitiveProperty(PropertyDefinition<T> propertyDefinition)
+    {
+        super(propertyDefinition, Collections.<T> emptyList());
+        // the super constructor calls setValues()
+        this.boxed = false;
+        this.primitive = true;
+    }
+
+    /**
+     * Returns whether the primitive values are valid.
+     *
+     * @return <code>true</code> if the primitive accessors can be used
+     */
+    public boolean isPrimitive()
+    {
+        return primitive;
+    }
+
+    /**
+     * Returns the number of primitive values.
+     */
+    public abstract int size();
+
+    /**
+     * Returns a value of an integer property.
+     *
+     * @throws IllegalArgumentException
+     *             if the property is not an integer property
+     */
+    public long getLong(int index)
+    {
+        throw new IllegalArgumentException("Property '" + getId() + "' is not an integer property!");
+    }
+
+    /**
+     * Returns a value of an integer or decimal property.
+     *
+     * @throws IllegalArgumentException
+     *             if the property is not a numeric property
+     */
+    public double getDouble(int index)
+    {
+        throw new IllegalArgumentException("Property '" + getId() + "' is not a numeric property!");
+    }
+
+    /**
+     * Returns a value of a boolean property.
+     *
+     * @throws IllegalArgumentException
+     *             if the property is not a boolean property
+     */
+    public boolean getBoolean(int index)
+    {
+        throw new IllegalArgumentException("Property '" + getId() + "' is not a boolean property!");
+    }
+
+    /**
+     * Creates the spec values from the primitive values.
+     */
+    protected abstract List<T> box();
+
+    private void materialize()
+    {
+        if (!boxed)
+        {
+            synchronized (this)
+            {
+                if (!boxed)
+                {
+                    super.setValues(box());
+                    boxed = true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<T> getValues()
+    {
+        materialize();
+        return super.getValues();
+    }
+
+    @Override
+    public T getFirstValue()
+    {
+        materialize();
+        return super.getFirstValue();
+    }
+
+    @Override
+    public void setValues(List<T> values)
+    {
+        synchronized (this)
+        {
+            primitive = false;
+            boxed = true;
+            super.setValues(values);
+        }
+    }
+
+    @Override
+    public void setValue(T value)
+    {
+        synchronized (this)
+        {
+            primitive = false;
+            boxed = true;
+            super.setValue(value);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        materialize();
+        return super.toString();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        materialize();
+        out.defaultWriteObject();
+    }
+
+    private static <T> List<T> toList(List<T> values)
+    {
+        return values.size() == 1 ? Collections.singletonList(values.get(0)) : values;
+    }
+
+    /**
+     * Integer property backed by a <code>long</code> array.
+     */
+    static final class IntegerProperty extends AlfrescoPrimitiveProperty<BigInteger>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] values;
+
+        IntegerProperty(PropertyDefinition<BigInteger> propertyDefinition, long[] values)
+        {
+            super(propertyDefinition);
+            this.values = values;
+        }
+
+        @Override
+        public int size()
+        {
+            return values.length;
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        protected List<BigInteger> box()
+        {
+            List<BigInteger> result = new ArrayList<BigInteger>(values.length);
+            for (long value : values)
+            {
+                result.add(BigInteger.valueOf(value));
+            }
+
+            return toList(result);
+        }
+    }
+
+    /**
+     * Decimal property backed by a <code>double</code> array. Only used if
+     * every value survives the round trip through <code>double</code>,
+     * including its scale.
+     */
+    static final class DecimalProperty extends AlfrescoPrimitiveProperty<BigDecimal>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] values;
+
+        DecimalProperty(PropertyDefinition<BigDecimal> propertyDefinition, double[] values)
+        {
+            super(propertyDefinition);
+            this.values = values;
+        }
+
+        @Override
+        public int size()
+        {
+            return values.length;
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        protected List<BigDecimal> box()
+        {
+            List<BigDecimal> result = new ArrayList<BigDecimal>(values.length);
+            for (double value : values)
+            {
+                result.add(BigDecimal.valueOf(value));
+            }
+
+            return toList(result);
+        }
+    }
+
+    /**
+     * Boolean property backed by a <code>boolean</code> array.
+     */
+    static final class BooleanProperty extends AlfrescoPrimitiveProperty<Boolean>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean[] values;
+
+        BooleanProperty(PropertyDefinition<Boolean> propertyDefinition, boolean[] values)
+        {
+            super(propertyDefinition);
+            this.values = values;
+        }
+
+        @Override
+        public int size()
+        {
+            return values.length;
+        }
+
+        @Override
+        public boolean getBoolean(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        protected List<Boolean> box()
+        {
+            List<Boolean> result = new ArrayList<Boolean>(values.length);
+            for (boolean value : values)
+            {
+                result.add(Boolean.valueOf(value));
+            }
+
+            return toList(result);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+import org.apache.chemistry.opencmis.commons.enums.Cardinality;
+
+/**
+ * Converts the CMIS 1.0 extension representation of one aspect property into a
+ * {@link Property}.
+ * <p>
+ * A converter is compiled once per aspect property definition and binds the
+ * owning aspect, the cardinality and a value parser for the property type, so
+ * that converting an object does not need to look at the definition again.
+ * Integer, decimal and boolean values are stored in primitive form if they
+ * fit (see {@link AlfrescoPrimitiveProperty}).
+ *
+ * @param <T> the property value type
+ */
+public abstract class AlfrescoPropertyConverter<T>
+{
+    private final ObjectType aspectType;
+    private final PropertyDefinition<T> propertyDefinition;
+    private final boolean multiValued;
+    private final AlfrescoPropertyExtensionBuilder extensionBuilder;
+    private final AlfrescoPropertyValidator<T> validator;
+
+    private AlfrescoPropertyConverter(ObjectType aspectType, PropertyDefinition<T> propertyDefinition)
+    {
+        this.aspectType = aspectType;
+        this.propertyDefinition = propertyDefinition;
+        this.multiValued = (propertyDefinition.getCardinality() == Cardinality.MULTI);
+        this.extensionBuilder = new AlfrescoPropertyExtensionBuilder(propertyDefinition);
+        this.validator = AlfrescoPropertyValidator.createForExtension(propertyDefinition);
+    }
+
+    /**
+     * Compiles a converter.
+     *
+     * @param aspectType the aspect that defines the property
+     * @param propertyDefinition the property definition
+     * @return the converter
+     */
+    @SuppressWarnings("unchecked")
+    public static AlfrescoPropertyConverter<?> create(ObjectType aspectType, PropertyDefinition<?> propertyDefinition)
+    {
+        switch (propertyDefinition.getPropertyType())
+        {
+        case BOOLEAN:
+            return new BooleanConverter(aspectType, (PropertyDefinition<Boolean>) propertyDefinition);
+        case DATETIME:
+            return new DateTimeConverter(aspectType, (PropertyDefinition<GregorianCalendar>) propertyDefinition);
+        case DECIMAL:
+            return new DecimalConverter(aspectType, (PropertyDefinition<BigDecimal>) propertyDefinition);
+        case INTEGER:
+            return new IntegerConverter(aspectType, (PropertyDefinition<BigInteger>) propertyDefinition);
+        default:
+            return new StringConverter(aspectType, (PropertyDefinition<String>) propertyDefinition);
+        }
+    }
+
+    public ObjectType getAspectType()
+    {
+        return aspectType;
+    }
+
+    public PropertyDefinition<T> getPropertyDefinition()
+    {
+        return propertyDefinition;
+    }
+
+    public boolean isMultiValued()
+    {
+        return multiValued;
+    }
+
+    /**
+     * Returns the builder that writes values of this property.
+     */
+    public AlfrescoPropertyExtensionBuilder getExtensionBuilder()
+    {
+        return extensionBuilder;
+    }
+
+    /**
+     * Returns the validator that checks values of this property before they
+     * are written.
+     */
+    public AlfrescoPropertyValidator<T> getValidator()
+    {
+        return validator;
+    }
+
+    /**
+     * Checks a value and creates its property extension element.
+     *
+     * @param value a single value, a list of values or a {@link Property}
+     * @return the property extension element
+     */
+    public CmisExtensionElement createExtension(Object value)
+    {
+        return extensionBuilder.build(validator.validate(value));
+    }
+
+    /**
+     * Converts a property extension element.
+     *
+     * @param objectFactory the object factory that creates the property
+     * @param property the property extension element with its value children
+     * @return the property
+     */
+    public Property<T> convert(ObjectFactory objectFactory, CmisExtensionElement property)
+    {
+        return objectFactory.createProperty(propertyDefinition, convertValues(property));
+    }
+
+    /**
+     * Wraps a property extension element in a property that converts the
+     * values on first access.
+     *
+     * @param property the property extension element with its value children
+     * @return the lazy property
+     */
+    public Property<T> convertLazily(CmisExtensionElement property)
+    {
+        return new AlfrescoLazyProperty<T>(this, property);
+    }
+
+    /**
+     * Converts the values of a property extension element.
+     *
+     * @param property the property extension element with its value children
+     * @return the values
+     */
+    public List<T> convertValues(CmisExtensionElement property)
+    {
+        List<CmisExtensionElement> valueElements = property.getChildren();
+
+        try
+        {
+            if (!multiValued && valueElements.size() == 1)
+            {
+                return Collections.singletonList(parse(valueElements.get(0).getValue()));
+            }
+
+            List<T> values = new ArrayList<T>(valueElements.size());
+            for (CmisExtensionElement valueElement : valueElements)
+            {
+                values.add(parse(valueElement.getValue()));
+            }
+
+            return values;
+        } catch (RuntimeException e)
+        {
+            throw new IllegalArgumentException("Aspect conversation exception: " + e.getMessage(), e);
+        }
+    }
+
+    protected abstract T parse(String value);
+
+    private static final class BooleanConverter extends AlfrescoPropertyConverter<Boolean>
+    {
+        BooleanConverter(ObjectType aspectType, PropertyDefinition<Boolean> propertyDefinition)
+        {
+            super(aspectType, propertyDefinition);
+        }
+
+        @Override
+        protected Boolean parse(String value)
+        {
+            return Boolean.valueOf(value);
+        }
+
+        @Override
+        public Property<Boolean> convert(ObjectFactory objectFactory, CmisExtensionElement property)
+        {
+            List<CmisExtensionElement> valueElements = property.getChildren();
+
+            boolean[] values = new boolean[valueElements.size()];
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = Boolean.parseBoolean(valueElements.get(i).getValue());
+            }
+
+            return new AlfrescoPrimitiveProperty.BooleanProperty(getPropertyDefinition(), values);
+        }
+    }
+
+    private static final class DateTimeConverter extends AlfrescoPropertyConverter<GregorianCalendar>
+    {
+        DateTimeConverter(ObjectType aspectType, PropertyDefinition<GregorianCalendar> propertyDefinition)
+        {
+            super(aspectType, propertyDefinition);
+        }
+
+        @Override
+        protected GregorianCalendar parse(String value)
+        {
+            return AlfrescoDateTimeCodec.parse(value);
+        }
+    }
+
+    private static final class DecimalConverter extends AlfrescoPropertyConverter<BigDecimal>
+    {
+        DecimalConverter(ObjectType aspectType, PropertyDefinition<BigDecimal> propertyDefinition)
+        {
+            super(aspectType, propertyDefinition);
+        }
+
+        @Override
+        protected BigDecimal parse(String value)
+        {
+            return new BigDecimal(value);
+        }
+
+        @Override
+        public Property<BigDecimal> convert(ObjectFactory objectFactory, CmisExtensionElement property)
+        {
+            List<CmisExtensionElement> valueElements = property.getChildren();
+
+            double[] values = new double[valueElements.size()];
+            try
+            {
+                for (int i = 0; i < values.length; i++)
+                {
+                    BigDecimal value = new BigDecimal(valueElements.get(i).getValue());
+                    values[i] = value.doubleValue();
+                    if (!BigDecimal.valueOf(values[i]).equals(value))
+                    {
+                        // doesn't fit into a double
+                        return super.convert(objectFactory, property);
+                    }
+                }
+            } catch (RuntimeException e)
+            {
+                return super.convert(objectFactory, property);
+            }
+
+            return new AlfrescoPrimitiveProperty.DecimalProperty(getPropertyDefinition(), values);
+        }
+    }
+
+    private static final class IntegerConverter extends AlfrescoPropertyConverter<BigInteger>
+    {
+        IntegerConverter(ObjectType aspectType, PropertyDefinition<BigInteger> propertyDefinition)
+        {
+            super(aspectType, propertyDefinition);
+        }
+
+        @Override
+        protected BigInteger parse(String value)
+        {
+            return new BigInteger(value);
+        }
+
+        @Override
+        public Property<BigInteger> convert(ObjectFactory objectFactory, CmisExtensionElement property)
+        {
+            List<CmisExtensionElement> valueElements = property.getChildren();
+
+            long[] values = new long[valueElements.size()];
+            try
+            {
+                for (int i = 0; i < values.length; i++)
+                {
+                    values[i] = Long.parseLong(valueElements.get(i).getValue());
+                }
+            } catch (NumberFormatException e)
+            {
+                // doesn't fit into a long or isn't a number at all
+                return super.convert(objectFactory, property);
+            }
+
+            return new AlfrescoPrimitiveProperty.IntegerProperty(getPropertyDefinition(), values);
+        }
+    }
+
+    private static final class StringConverter extends AlfrescoPropertyConverter<String>
+    {
+        StringConverter(ObjectType aspectType, PropertyDefinition<String> propertyDefinition)
+        {
+            super(aspectType, propertyDefinition);
+        }
+
+        @Override
+        protected String parse(String value)
+        {
+            return value;
+        }
+    }
+}
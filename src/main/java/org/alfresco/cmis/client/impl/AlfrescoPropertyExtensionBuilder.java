@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+
+/**
+ * Builds the CMIS 1.0 extension element of one aspect property value.
+ * <p>
+ * The element name and the <code>propertyDefinitionId</code> attribute are
+ * derived once per property definition and shared by all elements the
+ * builder creates, so writing a property only allocates the value nodes.
+ * The elements are immutable.
+ */
+public final class AlfrescoPropertyExtensionBuilder
+{
+    private static final Map<String, String> NO_ATTRIBUTES = Collections.emptyMap();
+    private static final List<CmisExtensionElement> NO_CHILDREN = Collections.emptyList();
+
+    private final String name;
+    private final Map<String, String> attributes;
+
+    public AlfrescoPropertyExtensionBuilder(PropertyDefinition<?> propertyDefinition)
+    {
+        this.name = getElementName(propertyDefinition);
+        this.attributes = Collections.singletonMap("propertyDefinitionId", propertyDefinition.getId());
+    }
+
+    private static String getElementName(PropertyDefinition<?> propertyDefinition)
+    {
+        switch (propertyDefinition.getPropertyType())
+        {
+        case BOOLEAN:
+            return "propertyBoolean";
+        case DATETIME:
+            return "propertyDateTime";
+        case DECIMAL:
+            return "propertyDecimal";
+        case INTEGER:
+            return "propertyInteger";
+        case ID:
+            return "propertyId";
+        case HTML:
+            return "propertyHtml";
+        case URI:
+            return "propertyUri";
+        default:
+            return "propertyString";
+        }
+    }
+
+    /**
+     * Creates a property extension element.
+     *
+     * @param value a single value, a list of values or a {@link Property}
+     * @return the property extension element
+     */
+    @SuppressWarnings("rawtypes")
+    public CmisExtensionElement build(Object value)
+    {
+        List<CmisExtensionElement> propertyValues;
+        if (value == null)
+        {
+            propertyValues = NO_CHILDREN;
+        } else
+        {
+            if (value instanceof Property<?>)
+            {
+                value = ((Property<?>) value).getValues();
+            }
+
+            if (value instanceof List)
+            {
+                List list = (List) value;
+                propertyValues = new ArrayList<CmisExtensionElement>(list.size());
+                for (Object o : list)
+                {
+                    propertyValues.add(createValue(o));
+                }
+                propertyValues = Collections.unmodifiableList(propertyValues);
+            } else
+            {
+                propertyValues = Collections.singletonList(createValue(value));
+            }
+        }
+
+        return new Element(AlfrescoUtils.CMIS_NAMESPACE, name, attributes, null, propertyValues);
+    }
+
+    private static CmisExtensionElement createValue(Object value)
+    {
+        return new Element(AlfrescoUtils.CMIS_NAMESPACE, "value", NO_ATTRIBUTES,
+                AlfrescoUtils.convertAspectPropertyValue(value), NO_CHILDREN);
+    }
+
+    /**
+     * Extension element that shares its attributes and children instead of
+     * copying them.
+     */
+    private static final class Element implements CmisExtensionElement
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String namespace;
+        private final String name;
+        private final Map<String, String> attributes;
+        private final String value;
+        private final List<CmisExtensionElement> children;
+
+        Element(String namespace, String name, Map<String, String> attributes, String value,
+                List<CmisExtensionElement> children)
+        {
+            this.namespace = namespace;
+            this.name = name;
+            this.attributes = attributes;
+            this.value = value;
+            this.children = children;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getNamespace()
+        {
+            return namespace;
+        }
+
+        public String getValue()
+        {
+            return value;
+        }
+
+        public Map<String, String> getAttributes()
+        {
+            return attributes;
+        }
+
+        public List<CmisExtensionElement> getChildren()
+        {
+            return children;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "{" + namespace + "}" + name + " " + attributes + ": " + (value != null ? value : children);
+        }
+    }
+}
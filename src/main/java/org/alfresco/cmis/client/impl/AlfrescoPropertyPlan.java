@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+
+/**
+ * Partition plan for outgoing properties, derived from a raw
+ * <code>cmis:objectTypeId</code> value such as
+ * <code>D:my:doc,P:cm:titled</code>.
+ * <p>
+ * The plan holds the resolved object type and aspect types and knows for every
+ * property id whether it belongs to the type or to one of the aspects. Plans
+ * are cached by the {@link AlfrescoAspectRegistry}, so repeated creates and
+ * updates with the same type id string skip parsing and type resolution.
+ */
+public final class AlfrescoPropertyPlan
+{
+    private final ObjectType objectType;
+    private final List<ObjectType> aspectTypes;
+    private final List<String> aspectIds;
+    private final Map<String, AlfrescoPropertyConverter<?>> aspectPropertyConverters;
+
+    private AlfrescoPropertyPlan(AlfrescoAspectRegistry registry, ObjectType objectType,
+            List<ObjectType> aspectTypes, List<String> aspectIds)
+    {
+        this.objectType = objectType;
+        this.aspectTypes = Collections.unmodifiableList(aspectTypes);
+        this.aspectIds = aspectIds;
+
+        // the first aspect that defines a property owns it
+        Map<String, AlfrescoPropertyConverter<?>> converters = new HashMap<String, AlfrescoPropertyConverter<?>>();
+        for (ObjectType aspectType : aspectTypes)
+        {
+            if (aspectType.getPropertyDefinitions() == null)
+            {
+                continue;
+            }
+
+            for (String propertyId : aspectType.getPropertyDefinitions().keySet())
+            {
+                if (!converters.containsKey(propertyId))
+                {
+                    converters.put(propertyId, registry.getPropertyConverter(aspectType, propertyId));
+                }
+            }
+        }
+        this.aspectPropertyConverters = converters;
+    }
+
+    /**
+     * Parses a type id string and resolves its types.
+     *
+     * @param registry the registry that resolves the types
+     * @param typeIds the object type id, optionally followed by comma separated
+     *            aspect ids
+     * @return the plan
+     */
+    static AlfrescoPropertyPlan create(AlfrescoAspectRegistry registry, String typeIds)
+    {
+        AlfrescoTypeId typeId = registry.parseTypeId(typeIds);
+        ObjectType objectType = registry.getObjectType(typeId.getObjectTypeId());
+
+        List<String> aspectIds = typeId.getAspectIds();
+        List<ObjectType> aspectTypes = new ArrayList<ObjectType>(aspectIds.size());
+        for (String aspectId : aspectIds)
+        {
+            aspectTypes.add(registry.getAspectType(aspectId));
+        }
+
+        return new AlfrescoPropertyPlan(registry, objectType, aspectTypes, aspectIds);
+    }
+
+    public ObjectType getObjectType()
+    {
+        return objectType;
+    }
+
+    /**
+     * Returns the aspect types, in the order of the type id string.
+     *
+     * @return unmodifiable list of aspect types
+     */
+    public List<ObjectType> getAspectTypes()
+    {
+        return aspectTypes;
+    }
+
+    /**
+     * Returns the aspect ids, in the order of the type id string.
+     *
+     * @return unmodifiable list of aspect ids
+     */
+    public List<String> getAspectIds()
+    {
+        return aspectIds;
+    }
+
+    /**
+     * Returns whether the property is defined by the object type.
+     *
+     * @param propertyId the property id
+     * @return <code>true</code> for object type properties
+     */
+    public boolean isTypeProperty(String propertyId)
+    {
+        return objectType.getPropertyDefinitions().containsKey(propertyId);
+    }
+
+    /**
+     * Returns the definition of an aspect property.
+     *
+     * @param propertyId the property id
+     * @return the property definition, or <code>null</code> if none of the
+     *         aspects defines the property
+     */
+    public PropertyDefinition<?> getAspectPropertyDefinition(String propertyId)
+    {
+        AlfrescoPropertyConverter<?> converter = aspectPropertyConverters.get(propertyId);
+        return converter == null ? null : converter.getPropertyDefinition();
+    }
+
+    /**
+     * Returns the compiled converter of an aspect property.
+     *
+     * @param propertyId the property id
+     * @return the converter, or <code>null</code> if none of the aspects
+     *         defines the property
+     */
+    public AlfrescoPropertyConverter<?> getAspectPropertyConverter(String propertyId)
+    {
+        return aspectPropertyConverters.get(propertyId);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+import org.apache.chemistry.opencmis.commons.enums.Cardinality;
+
+/**
+ * Checks property values against a property definition before they are sent
+ * to the repository.
+ * <p>
+ * A validator is compiled once per property definition. It checks the
+ * cardinality and then every value of a list for <code>null</code> and for
+ * the Java type of the property type in one pass.
+ * <p>
+ * Aspect property values of CMIS 1.0 repositories are written as strings, so
+ * their validators accept every value the extension encoder can write, as
+ * the repository converts and checks them.
+ *
+ * @param <T> the property value type
+ */
+public abstract class AlfrescoPropertyValidator<T>
+{
+    private static final Map<PropertyDefinition<?>, AlfrescoPropertyValidator<?>> VALIDATORS = Collections
+            .synchronizedMap(new WeakHashMap<PropertyDefinition<?>, AlfrescoPropertyValidator<?>>());
+
+    private final String propertyId;
+    private final boolean multiValued;
+    private final boolean checkCardinality;
+
+    private AlfrescoPropertyValidator(PropertyDefinition<T> propertyDefinition, boolean checkCardinality)
+    {
+        this.propertyId = propertyDefinition.getId();
+        this.multiValued = (propertyDefinition.getCardinality() == Cardinality.MULTI);
+        this.checkCardinality = checkCardinality;
+    }
+
+    /**
+     * Returns the validator of a property definition, compiling it on first
+     * use.
+     *
+     * @param propertyDefinition the property definition
+     * @return the validator
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AlfrescoPropertyValidator<T> get(PropertyDefinition<T> propertyDefinition)
+    {
+        AlfrescoPropertyValidator<T> validator = (AlfrescoPropertyValidator<T>) VALIDATORS.get(propertyDefinition);
+        if (validator == null)
+        {
+            validator = create(propertyDefinition);
+            VALIDATORS.put(propertyDefinition, validator);
+        }
+
+        return validator;
+    }
+
+    /**
+     * Compiles a validator for aspect property values that are written as
+     * extension elements. It accepts strings, numbers, booleans and calendars
+     * for every property type and doesn't check the cardinality.
+     *
+     * @param propertyDefinition the property definition
+     * @return the validator
+     */
+    public static <T> AlfrescoPropertyValidator<T> createForExtension(PropertyDefinition<T> propertyDefinition)
+    {
+        return new ExtensionValidator<T>(propertyDefinition);
+    }
+
+    /**
+     * Compiles a validator.
+     *
+     * @param propertyDefinition the property definition
+     * @return the validator
+     */
+    public static <T> AlfrescoPropertyValidator<T> create(PropertyDefinition<T> propertyDefinition)
+    {
+        switch (propertyDefinition.getPropertyType())
+        {
+        case INTEGER:
+            return new IntegerValidator<T>(propertyDefinition);
+        case DECIMAL:
+            return new TypeValidator<T>(propertyDefinition, BigDecimal.class);
+        case BOOLEAN:
+            return new TypeValidator<T>(propertyDefinition, Boolean.class);
+        case DATETIME:
+            return new TypeValidator<T>(propertyDefinition, GregorianCalendar.class);
+        default:
+            return new TypeValidator<T>(propertyDefinition, String.class);
+        }
+    }
+
+    /**
+     * Checks a property value.
+     *
+     * @param value a single value, a list of values or a {@link Property}
+     * @return the values, or <code>null</code> if the value is
+     *         <code>null</code> (which is ok for updates)
+     * @throws IllegalArgumentException if the value doesn't match the
+     *             definition
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> validate(Object value)
+    {
+        // null values are ok for updates
+        if (value == null)
+        {
+            return null;
+        }
+
+        // single and multi value check
+        List<T> values;
+        if (value instanceof Property<?>)
+        {
+            values = ((Property<T>) value).getValues();
+            if (checkCardinality && !multiValued && values.size() > 1)
+            {
+                throw new IllegalArgumentException("Property '" + propertyId + "' is not a multi value property!");
+            }
+        } else if (value instanceof List<?>)
+        {
+            if (checkCardinality && !multiValued)
+            {
+                throw new IllegalArgumentException("Property '" + propertyId + "' is not a multi value property!");
+            }
+
+            values = (List<T>) value;
+        } else
+        {
+            if (checkCardinality && multiValued)
+            {
+                throw new IllegalArgumentException("Property '" + propertyId + "' is not a single value property!");
+            }
+
+            values = Collections.singletonList((T) value);
+        }
+
+        // check all values
+        for (Object o : values)
+        {
+            if (o == null)
+            {
+                throw new IllegalArgumentException("Property '" + propertyId + "' contains null values!");
+            }
+
+            if (!accepts(o))
+            {
+                throw new IllegalArgumentException("Value of property '" + propertyId
+                        + "' does not match property type!");
+            }
+        }
+
+        return values;
+    }
+
+    protected abstract boolean accepts(Object value);
+
+    private static final class TypeValidator<T> extends AlfrescoPropertyValidator<T>
+    {
+        private final Class<?> type;
+
+        TypeValidator(PropertyDefinition<T> propertyDefinition, Class<?> type)
+        {
+            super(propertyDefinition, true);
+            this.type = type;
+        }
+
+        @Override
+        protected boolean accepts(Object value)
+        {
+            return type.isInstance(value);
+        }
+    }
+
+    private static final class IntegerValidator<T> extends AlfrescoPropertyValidator<T>
+    {
+        IntegerValidator(PropertyDefinition<T> propertyDefinition)
+        {
+            super(propertyDefinition, true);
+        }
+
+        @Override
+        protected boolean accepts(Object value)
+        {
+            return (value instanceof BigInteger) || (value instanceof Long) || (value instanceof Integer)
+                    || (value instanceof Short) || (value instanceof Byte);
+        }
+    }
+
+    private static final class ExtensionValidator<T> extends AlfrescoPropertyValidator<T>
+    {
+        ExtensionValidator(PropertyDefinition<T> propertyDefinition)
+        {
+            super(propertyDefinition, false);
+        }
+
+        @Override
+        protected boolean accepts(Object value)
+        {
+            return (value instanceof String) || (value instanceof Number) || (value instanceof Boolean)
+                    || (value instanceof GregorianCalendar);
+        }
+    }
+}
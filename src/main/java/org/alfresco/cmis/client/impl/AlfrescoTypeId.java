@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parsed compound <code>cmis:objectTypeId</code> value, for example
+ * <code>D:my:doc,P:cm:titled,P:cm:author</code>.
+ * <p>
+ * Instances are immutable and interned by the {@link AlfrescoAspectRegistry},
+ * so the string form and the parsed form are created once per distinct value
+ * and shared by all objects of the same shape.
+ */
+public final class AlfrescoTypeId
+{
+    private final String value;
+    private final String objectTypeId;
+    private final List<String> aspectIds;
+
+    private AlfrescoTypeId(String value, String objectTypeId, List<String> aspectIds)
+    {
+        this.value = value;
+        this.objectTypeId = objectTypeId;
+        this.aspectIds = Collections.unmodifiableList(aspectIds);
+    }
+
+    /**
+     * Parses a compound type id value.
+     *
+     * @param value the object type id, optionally followed by comma separated
+     *            aspect ids
+     * @return the parsed value
+     */
+    static AlfrescoTypeId parse(String value)
+    {
+        int comma = value.indexOf(',');
+        if (comma == -1)
+        {
+            return new AlfrescoTypeId(value, value.trim(), new ArrayList<String>(0));
+        }
+
+        String objectTypeId = value.substring(0, comma).trim();
+        List<String> aspectIds = new ArrayList<String>();
+        int start = comma + 1;
+        while (true)
+        {
+            comma = value.indexOf(',', start);
+            if (comma == -1)
+            {
+                addAspectId(aspectIds, value.substring(start).trim());
+                break;
+            }
+
+            addAspectId(aspectIds, value.substring(start, comma).trim());
+            start = comma + 1;
+        }
+
+        return new AlfrescoTypeId(value, objectTypeId, aspectIds);
+    }
+
+    private static void addAspectId(List<String> aspectIds, String aspectId)
+    {
+        // ignore empty entries, for example after a trailing comma
+        if (aspectId.length() > 0)
+        {
+            aspectIds.add(aspectId);
+        }
+    }
+
+    /**
+     * Builds a compound type id value.
+     *
+     * @param objectTypeId the object type id
+     * @param aspectIds the aspect ids
+     * @return the type id
+     */
+    static AlfrescoTypeId create(String objectTypeId, Collection<String> aspectIds)
+    {
+        StringBuilder sb = new StringBuilder(objectTypeId);
+        for (String aspectId : aspectIds)
+        {
+            sb.append(',');
+            sb.append(aspectId);
+        }
+
+        return new AlfrescoTypeId(sb.toString(), objectTypeId, new ArrayList<String>(aspectIds));
+    }
+
+    /**
+     * Returns the compound value.
+     */
+    public String getValue()
+    {
+        return value;
+    }
+
+    public String getObjectTypeId()
+    {
+        return objectTypeId;
+    }
+
+    /**
+     * Returns the aspect ids, in the order of the compound value.
+     *
+     * @return unmodifiable list of aspect ids
+     */
+    public List<String> getAspectIds()
+    {
+        return aspectIds;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return value.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof AlfrescoTypeId))
+        {
+            return false;
+        }
+
+        return value.equals(((AlfrescoTypeId) obj).value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return value;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
+import org.apache.chemistry.opencmis.commons.enums.DateTimeFormat;
+import org.apache.chemistry.opencmis.commons.impl.JSONConverter;
+import org.apache.chemistry.opencmis.commons.impl.json.parser.JSONParseException;
+import org.apache.chemistry.opencmis.commons.impl.json.parser.JSONParser;
+
+/**
+ * Reads and writes binary snapshots of type definitions.
+ * <p>
+ * A snapshot starts with a header that identifies the repository (id, CMIS
+ * version, product version and latest change log token), followed by
+ * length-prefixed type definition records. The records use the OpenCMIS JSON
+ * type encoding, so Alfresco extensions such as mandatory aspects are kept.
+ * Snapshots are memory-mapped when read and rejected if the header does not
+ * match the repository the session is connected to. The change log token is
+ * the only indicator of type changes, so snapshots are never loaded for a
+ * repository that doesn't report one.
+ */
+public class AlfrescoTypeSnapshot
+{
+    private static final int MAGIC = 0x41544453;
+    private static final int FORMAT_VERSION = 1;
+
+    private AlfrescoTypeSnapshot()
+    {
+    }
+
+    /**
+     * Writes a snapshot. The file is replaced atomically where the file system
+     * supports it.
+     *
+     * @param file the snapshot file
+     * @param repositoryInfo the repository the types belong to
+     * @param types the type definitions
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void save(File file, RepositoryInfo repositoryInfo, Collection<? extends TypeDefinition> types)
+            throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        File tmpFile = File.createTempFile(file.getName(), ".tmp", parent);
+
+        try
+        {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, repositoryInfo.getId());
+                writeString(out, repositoryInfo.getCmisVersionSupported());
+                writeString(out, repositoryInfo.getProductVersion());
+                writeString(out, repositoryInfo.getLatestChangeLogToken());
+
+                out.writeInt(types.size());
+                for (TypeDefinition type : types)
+                {
+                    writeString(out, JSONConverter.convert(type, DateTimeFormat.SIMPLE).toJSONString());
+                }
+            } finally
+            {
+                out.close();
+            }
+
+            try
+            {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally
+        {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * Returns whether snapshots of the given repository can be validated,
+     * which requires a change log token.
+     *
+     * @param repositoryInfo the repository info
+     * @return <code>true</code> if the repository reports a change log token
+     */
+    public static boolean canValidate(RepositoryInfo repositoryInfo)
+    {
+        String token = repositoryInfo.getLatestChangeLogToken();
+        return token != null && token.length() > 0;
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param file the snapshot file
+     * @param repositoryInfo the repository the session is connected to
+     * @return the type definitions, or <code>null</code> if the file does not
+     *         exist, is damaged, has been taken from a different repository
+     *         state or cannot be validated
+     */
+    @SuppressWarnings("unchecked")
+    public static List<TypeDefinition> load(File file, RepositoryInfo repositoryInfo)
+    {
+        if (!file.isFile() || !canValidate(repositoryInfo))
+        {
+            return null;
+        }
+
+        try
+        {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try
+            {
+                FileChannel channel = raf.getChannel();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+                if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+                {
+                    return null;
+                }
+
+                if (!same(readString(buffer), repositoryInfo.getId())
+                        || !same(readString(buffer), repositoryInfo.getCmisVersionSupported())
+                        || !same(readString(buffer), repositoryInfo.getProductVersion())
+                        || !same(readString(buffer), repositoryInfo.getLatestChangeLogToken()))
+                {
+                    // snapshot of a different repository or repository state
+                    return null;
+                }
+
+                int count = buffer.getInt();
+                if (count < 0)
+                {
+                    return null;
+                }
+
+                List<TypeDefinition> result = new ArrayList<TypeDefinition>(count);
+                JSONParser parser = new JSONParser();
+                for (int i = 0; i < count; i++)
+                {
+                    Object json = parser.parse(readString(buffer));
+                    if (json instanceof Map)
+                    {
+                        result.add(JSONConverter.convertTypeDefinition((Map<String, Object>) json));
+                    }
+                }
+
+                return result;
+            } finally
+            {
+                raf.close();
+            }
+        } catch (IOException e)
+        {
+            return null;
+        } catch (JSONParseException e)
+        {
+            return null;
+        } catch (BufferUnderflowException e)
+        {
+            return null;
+        } catch (RuntimeException e)
+        {
+            // type definition that cannot be converted
+            return null;
+        }
+    }
+
+    private static boolean same(String stored, String current)
+    {
+        return current != null && stored.equals(current);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining())
+        {
+            throw new BufferUnderflowException();
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -20,32 +20,38 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
-
+import org.alfresco.cmis.client.type.AlfrescoType;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.ObjectId;
 import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
 import org.apache.chemistry.opencmis.client.api.Property;
 import org.apache.chemistry.opencmis.client.api.Session;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
 import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
 import org.apache.chemistry.opencmis.commons.data.Properties;
-import org.apache.chemistry.opencmis.commons.data.PropertyData;
 import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
-import org.apache.chemistry.opencmis.commons.enums.Cardinality;
 import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.apache.chemistry.opencmis.commons.enums.Updatability;
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.CmisExtensionElementImpl;
-import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
-import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
 import org.apache.chemistry.opencmis.commons.spi.Holder;
 
 public class AlfrescoUtils
@@ -88,6 +94,38 @@ public class AlfrescoUtils
         return null;
     }
 
+    /**
+     * Walks the Alfresco extension within the given extensions once and
+     * reports its applied aspects and property containers to the visitor.
+     * 
+     * @param extensions List of extensions (List&lt;CmisExtensionElement&gt;)
+     * @param visitor the visitor
+     * @return <code>true</code> if an Alfresco extension was found
+     */
+    public static boolean visitAlfrescoExtensions(List<CmisExtensionElement> extensions,
+            AlfrescoExtensionVisitor visitor)
+    {
+        List<CmisExtensionElement> alfrescoExtensions = findAlfrescoExtensions(extensions);
+        if (alfrescoExtensions == null)
+        {
+            return false;
+        }
+
+        for (CmisExtensionElement extension : alfrescoExtensions)
+        {
+            String name = extension.getName();
+            if (APPLIED_ASPECTS.equals(name))
+            {
+                visitor.visitAppliedAspect(extension.getValue());
+            } else if (PROPERTIES.equals(name))
+            {
+                visitor.visitProperties(extension);
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Returns the aspect types from the Alfresco extensions.
      * 
@@ -99,19 +137,46 @@ public class AlfrescoUtils
     public static Collection<ObjectType> getAspectTypes(Session session, List<CmisExtensionElement> alfrescoExtensions)
     {
         Collection<ObjectType> aspectTypes = new ArrayList<ObjectType>();
+        AlfrescoAspectRegistry registry = AlfrescoAspectRegistry.get(session);
 
         for (CmisExtensionElement extension : alfrescoExtensions)
         {
             if (extension.getName().equals(APPLIED_ASPECTS))
             {
-                ObjectType aspectType = session.getTypeDefinition(extension.getValue());
-                aspectTypes.add(aspectType);
+                ObjectType aspectType = registry.findAspectType(extension.getValue());
+                if (aspectType != null)
+                {
+                    aspectTypes.add(aspectType);
+                }
             }
         }
 
         return aspectTypes;
     }
 
+    /**
+     * Returns the ids of the applied aspects from the Alfresco extensions,
+     * without resolving the aspect types.
+     * 
+     * @param alfrescoExtensions List of Alfesco extensions
+     * 
+     * @return A list of aspect ids
+     */
+    public static List<String> getAspectIds(List<CmisExtensionElement> alfrescoExtensions)
+    {
+        List<String> aspectIds = new ArrayList<String>();
+
+        for (CmisExtensionElement extension : alfrescoExtensions)
+        {
+            if (extension.getName().equals(APPLIED_ASPECTS))
+            {
+                aspectIds.add(extension.getValue());
+            }
+        }
+
+        return aspectIds;
+    }
+
     /**
      * Finds the aspect type that contains the given property id.
      * 
@@ -168,7 +233,18 @@ public class AlfrescoUtils
      */
     public static CmisExtensionElement createAspectsToRemoveExtension(ObjectType aspectType)
     {
-        return new CmisExtensionElementImpl(ALFRESCO_NAMESPACE, ASPECTS_TO_REMOVE, null, aspectType.getId());
+        return createAspectsToRemoveExtension(aspectType.getId());
+    }
+
+    /**
+     * Creates an aspectsToRemove extension element.
+     * 
+     * @param aspectId aspect id, the aspect type doesn't have to be known
+     * @return new aspectsToRemove extension element
+     */
+    public static CmisExtensionElement createAspectsToRemoveExtension(String aspectId)
+    {
+        return new CmisExtensionElementImpl(ALFRESCO_NAMESPACE, ASPECTS_TO_REMOVE, null, aspectId);
     }
 
     /**
@@ -190,67 +266,13 @@ public class AlfrescoUtils
      * 
      * @return new property extension element
      */
-    @SuppressWarnings("rawtypes")
     public static CmisExtensionElement createAspectPropertyExtension(PropertyDefinition<?> propertyDefinition,
             Object value)
     {
-        String name;
-        switch (propertyDefinition.getPropertyType())
-        {
-        case BOOLEAN:
-            name = "propertyBoolean";
-            break;
-        case DATETIME:
-            name = "propertyDateTime";
-            break;
-        case DECIMAL:
-            name = "propertyDecimal";
-            break;
-        case INTEGER:
-            name = "propertyInteger";
-            break;
-        case ID:
-            name = "propertyId";
-            break;
-        case HTML:
-            name = "propertyHtml";
-            break;
-        case URI:
-            name = "propertyUri";
-            break;
-        default:
-            name = "propertyString";
-        }
-
-        Map<String, String> attributes = new HashMap<String, String>();
-        attributes.put("propertyDefinitionId", propertyDefinition.getId());
-
-        List<CmisExtensionElement> propertyValues = new ArrayList<CmisExtensionElement>();
-        if (value != null)
-        {
-            if (value instanceof Property<?>)
-            {
-                value = ((Property<?>) value).getValues();
-            }
-
-            if (value instanceof List)
-            {
-                for (Object o : ((List) value))
-                {
-                    propertyValues.add(new CmisExtensionElementImpl(CMIS_NAMESPACE, "value", null,
-                            convertAspectPropertyValue(o)));
-                }
-            } else
-            {
-                propertyValues.add(new CmisExtensionElementImpl(CMIS_NAMESPACE, "value", null,
-                        convertAspectPropertyValue(value)));
-            }
-        }
-
-        return new CmisExtensionElementImpl(CMIS_NAMESPACE, name, attributes, propertyValues);
+        return new AlfrescoPropertyExtensionBuilder(propertyDefinition).build(value);
     }
 
-    private static String convertAspectPropertyValue(Object value)
+    static String convertAspectPropertyValue(Object value)
     {
         if (value == null)
         {
@@ -259,15 +281,7 @@ public class AlfrescoUtils
 
         if (value instanceof GregorianCalendar)
         {
-            DatatypeFactory df;
-            try
-            {
-                df = DatatypeFactory.newInstance();
-            } catch (DatatypeConfigurationException e)
-            {
-                throw new IllegalArgumentException("Aspect conversation exception: " + e.getMessage(), e);
-            }
-            return df.newXMLGregorianCalendar((GregorianCalendar) value).toXMLFormat();
+            return AlfrescoDateTimeCodec.format((GregorianCalendar) value);
         } else if (!(value instanceof String) && !(value instanceof Number) && !(value instanceof Boolean))
         {
             throw new IllegalArgumentException("Invalid aspect value!");
@@ -277,114 +291,309 @@ public class AlfrescoUtils
     }
 
     /**
-     * Checks a property value.
+     * Checks a property value. Every value of a list is checked.
      * 
-     * @param <T> Todo: provide definition
+     * @param <T> the property value type
      * @param propertyDefinition propertyDefinition
      * @param value value
      * 
-     * @return List
+     * @return the values, or <code>null</code> if the value is <code>null</code>
+     * 
+     * @see AlfrescoPropertyValidator
      */
-    @SuppressWarnings("unchecked")
     public static <T> List<T> checkProperty(PropertyDefinition<T> propertyDefinition, Object value)
     {
-        // null values are ok for updates
-        if (value == null)
+        return AlfrescoPropertyValidator.get(propertyDefinition).validate(value);
+    }
+
+    /**
+     * Adds object type and aspect types to properties.
+     * 
+     * @param properties Properites to be added to
+     * @param type the object tyoe
+     * @param aspectTypes collection of aspect types 
+     * 
+     * @return The properties list with the new object and aspect types
+     */
+    public static Map<String, ?> preparePropertiesForUpdate(Map<String, ?> properties, ObjectType type,
+            Collection<ObjectType> aspectTypes)
+    {
+        Map<String, Object> newProperties = (properties == null ? null : new LinkedHashMap<String, Object>(properties));
+        if (newProperties != null)
         {
-            return null;
+            newProperties.put(PropertyIds.OBJECT_TYPE_ID, createObjectTypeIdValue(type, aspectTypes));
+        }
+
+        return newProperties;
+    }
+
+    /**
+     * Adds object type and aspect types to properties.
+     * 
+     * @param properties Properites to be added to
+     * @param type the object tyoe
+     * @param aspects the applied aspects
+     * 
+     * @return The properties list with the new object and aspect types
+     */
+    public static Map<String, ?> preparePropertiesForUpdate(Map<String, ?> properties, ObjectType type,
+            AlfrescoAspectSet aspects)
+    {
+        Map<String, Object> newProperties = (properties == null ? null : new LinkedHashMap<String, Object>(properties));
+        if (newProperties != null)
+        {
+            newProperties.put(PropertyIds.OBJECT_TYPE_ID, aspects.getTypeId(type).getValue());
         }
 
-        // single and multi value check
-        List<T> values = null;
-        if (value instanceof List<?>)
+        return newProperties;
+    }
+
+    /**
+     * Returns whether the session only sends changed property values.
+     * 
+     * @param session session
+     * 
+     * @return <code>true</code> if the session uses the Alfresco object factory
+     *         and diff updates are enabled
+     */
+    public static boolean isDiffUpdates(Session session)
+    {
+        ObjectFactory objectFactory = session.getObjectFactory();
+        return (objectFactory instanceof AlfrescoObjectFactoryImpl)
+                && ((AlfrescoObjectFactoryImpl) objectFactory).isDiffUpdates();
+    }
+
+    /**
+     * Returns the properties whose values differ from the loaded values of
+     * the object. <code>cmis:objectTypeId</code> is skipped, and properties
+     * that are not loaded are always returned.
+     * 
+     * @param object the object
+     * @param properties the new property values
+     * 
+     * @return the changed properties
+     */
+    public static Map<String, Object> getChangedProperties(CmisObject object, Map<String, ?> properties)
+    {
+        Map<String, Object> changedProperties = new LinkedHashMap<String, Object>();
+        if (properties == null)
+        {
+            return changedProperties;
+        }
+
+        for (Map.Entry<String, ?> property : properties.entrySet())
         {
-            if (propertyDefinition.getCardinality() != Cardinality.MULTI)
+            String id = property.getKey();
+            if (id == null || PropertyIds.OBJECT_TYPE_ID.equals(id))
             {
-                throw new IllegalArgumentException("Property '" + propertyDefinition.getId()
-                        + "' is not a multi value property!");
+                continue;
             }
 
-            values = (List<T>) value;
-            if (values.isEmpty())
+            Property<?> loaded = object.getProperty(id);
+            if (loaded == null || !isSameValue(loaded.getValues(), property.getValue()))
             {
-                return values;
+                changedProperties.put(id, property.getValue());
             }
+        }
+
+        return changedProperties;
+    }
+
+    /**
+     * Compares loaded property values with a new value, which may be a single
+     * value, a list of values, a property or <code>null</code>.
+     */
+    static boolean isSameValue(List<?> loadedValues, Object value)
+    {
+        List<?> values;
+        if (value == null)
+        {
+            values = Collections.emptyList();
+        } else if (value instanceof Property<?>)
+        {
+            values = ((Property<?>) value).getValues();
+        } else if (value instanceof List<?>)
+        {
+            values = (List<?>) value;
         } else
         {
-            if (propertyDefinition.getCardinality() != Cardinality.SINGLE)
+            values = Collections.singletonList(value);
+        }
+
+        if (loadedValues == null)
+        {
+            return values.isEmpty();
+        }
+        if (loadedValues.size() != values.size())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < values.size(); i++)
+        {
+            if (!isSameValueElement(loadedValues.get(i), values.get(i)))
             {
-                throw new IllegalArgumentException("Property '" + propertyDefinition.getId()
-                        + "' is not a single value property!");
+                return false;
             }
+        }
 
-            values = Collections.singletonList((T) value);
+        return true;
+    }
+
+    /**
+     * Compares a loaded value with a new value. Integers may be passed as any
+     * integral type, decimals are compared without their scale and
+     * date-times may be passed as {@link Date}.
+     */
+    static boolean isSameValueElement(Object loadedValue, Object value)
+    {
+        if (loadedValue == null || value == null)
+        {
+            return loadedValue == value;
+        }
+        if (loadedValue.equals(value))
+        {
+            return true;
         }
 
-        // check if list contains null values
-        for (Object o : values)
+        // values the caller may pass in a different Java type
+        if (loadedValue instanceof BigInteger)
         {
-            if (o == null)
+            return (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+                    && loadedValue.equals(BigInteger.valueOf(((Number) value).longValue()));
+        }
+        if (loadedValue instanceof BigDecimal)
+        {
+            return (value instanceof BigDecimal) && ((BigDecimal) loadedValue).compareTo((BigDecimal) value) == 0;
+        }
+        if (loadedValue instanceof GregorianCalendar)
+        {
+            long millis = ((GregorianCalendar) loadedValue).getTimeInMillis();
+            if (value instanceof GregorianCalendar)
             {
-                throw new IllegalArgumentException("Property '" + propertyDefinition.getId()
-                        + "' contains null values!");
+                return millis == ((GregorianCalendar) value).getTimeInMillis();
+            }
+            if (value instanceof Date)
+            {
+                return millis == ((Date) value).getTime();
             }
         }
 
-        // take a sample and test the data type
-        boolean typeMatch = false;
-        Object firstValue = values.get(0);
+        return false;
+    }
 
-        switch (propertyDefinition.getPropertyType())
+    /**
+     * Sends the changed property values of a document or folder. The aspects
+     * of the object are not sent. No lock of the object is held while the
+     * repository is called.
+     * 
+     * @param session session
+     * @param object the object
+     * @param aspects the aspects of the object
+     * @param properties the new property values
+     * @param refresh whether the object should be refreshed after the update
+     * 
+     * @return the object id, or the id of the new object if the repository
+     *         created one
+     */
+    public static ObjectId updateChangedProperties(Session session, CmisObject object, AlfrescoAspectSet aspects,
+            Map<String, ?> properties, boolean refresh)
+    {
+        if (properties == null || properties.isEmpty())
         {
-        case STRING:
-        case ID:
-        case URI:
-        case HTML:
-            typeMatch = (firstValue instanceof String);
-            break;
-        case INTEGER:
-            typeMatch = (firstValue instanceof BigInteger) || (firstValue instanceof Byte)
-                    || (firstValue instanceof Short) || (firstValue instanceof Integer) || (firstValue instanceof Long);
-            break;
-        case DECIMAL:
-            typeMatch = (firstValue instanceof BigDecimal);
-            break;
-        case BOOLEAN:
-            typeMatch = (firstValue instanceof Boolean);
-            break;
-        case DATETIME:
-            typeMatch = (firstValue instanceof GregorianCalendar);
-            break;
+            throw new IllegalArgumentException("Properties must not be empty!");
         }
 
-        if (!typeMatch)
+        String objectId = object.getId();
+        Map<String, Object> changedProperties = getChangedProperties(object, properties);
+        if (changedProperties.isEmpty())
         {
-            throw new IllegalArgumentException("Value of property '" + propertyDefinition.getId()
-                    + "' does not match property type!");
+            // nothing to send
+            return session.createObjectId(objectId);
         }
 
-        return values;
+        Properties cmisProperties = ((AlfrescoObjectFactoryImpl) session.getObjectFactory()).convertChangedProperties(
+                changedProperties, object.getType(), object.getSecondaryTypes(), aspects, getUpdatability(object));
+
+        return sendProperties(session, object, cmisProperties, refresh);
     }
 
     /**
-     * Adds object type and aspect types to properties.
+     * Sends the property values of a document or folder like
+     * {@link CmisObject#updateProperties(Map, boolean)}, but without holding
+     * a lock of the object while the repository is called.
      * 
-     * @param properties Properites to be added to
-     * @param type the object tyoe
-     * @param aspectTypes collection of aspect types 
+     * @param session session
+     * @param object the object
+     * @param properties the property values, prepared with
+     *            {@link #preparePropertiesForUpdate(Map, ObjectType, AlfrescoAspectSet)}
+     * @param refresh whether the object should be refreshed after the update
      * 
-     * @return The properties list with the new object and aspect types
+     * @return the object id, or the id of the new object if the repository
+     *         created one
      */
-    public static Map<String, ?> preparePropertiesForUpdate(Map<String, ?> properties, ObjectType type,
-            Collection<ObjectType> aspectTypes)
+    public static ObjectId updateProperties(Session session, CmisObject object, Map<String, ?> properties,
+            boolean refresh)
     {
-        Map<String, Object> newProperties = (properties == null ? null : new LinkedHashMap<String, Object>(properties));
-        if (newProperties != null)
+        if (properties == null || properties.isEmpty())
         {
-            newProperties.put(PropertyIds.OBJECT_TYPE_ID, createObjectTypeIdValue(type, aspectTypes));
+            throw new IllegalArgumentException("Properties must not be empty!");
         }
 
-        return newProperties;
+        Properties cmisProperties = session.getObjectFactory().convertProperties(properties, object.getType(),
+                object.getSecondaryTypes(), getUpdatability(object));
+
+        return sendProperties(session, object, cmisProperties, refresh);
+    }
+
+    private static Set<Updatability> getUpdatability(CmisObject object)
+    {
+        Set<Updatability> updatability = EnumSet.of(Updatability.READWRITE);
+        if (Boolean.TRUE.equals(object.getPropertyValue(PropertyIds.IS_PRIVATE_WORKING_COPY)))
+        {
+            updatability.add(Updatability.WHENCHECKEDOUT);
+        }
+
+        return updatability;
+    }
+
+    private static ObjectId sendProperties(Session session, CmisObject object, Properties cmisProperties,
+            boolean refresh)
+    {
+        String objectId = object.getId();
+        String repId = session.getRepositoryInfo().getId();
+        Holder<String> objectIdHolder = new Holder<String>(objectId);
+        Holder<String> changeTokenHolder = new Holder<String>(object.getChangeToken());
+        session.getBinding().getObjectService()
+                .updateProperties(repId, objectIdHolder, changeTokenHolder, cmisProperties, null);
+
+        // the cached object is outdated
+        session.removeObjectFromCache(objectId);
+
+        if (refresh)
+        {
+            object.refresh();
+        }
+
+        String newObjectId = objectIdHolder.getValue();
+        return newObjectId == null ? null : session.createObjectId(newObjectId);
+    }
+
+    /**
+     * Fetches the current state of an object for a refresh, which then only
+     * needs the object lock to apply it.
+     * 
+     * @param session session
+     * @param objectId the object id
+     * @param context the operation context the object has been loaded with
+     * 
+     * @return the object data
+     */
+    static ObjectData getObjectData(Session session, String objectId, OperationContext context)
+    {
+        return session.getBinding().getObjectService().getObject(session.getRepositoryInfo().getId(), objectId,
+                context.getFilterString(), context.isIncludeAllowableActions(), context.getIncludeRelationships(),
+                context.getRenditionFilterString(), context.isIncludePolicies(), context.isIncludeAcls(), null);
     }
 
     public static String createObjectTypeIdValue(ObjectType type, Collection<ObjectType> aspectTypes)
@@ -400,6 +609,123 @@ public class AlfrescoUtils
         return sb.toString();
     }
 
+    /**
+     * Executor of asynchronous updates of sessions without an Alfresco object
+     * factory, created on first use.
+     */
+    private static final class DefaultAsyncExecutor
+    {
+        static final Executor INSTANCE = AlfrescoObjectFactoryImpl
+                .createAsyncExecutor(AlfrescoObjectFactoryImpl.DEFAULT_ASYNC_THREADS);
+    }
+
+    /**
+     * Runs an update on the asynchronous executor of the session's object
+     * factory.
+     * 
+     * @param session session
+     * @param update the update, returns the changed object
+     * 
+     * @return the future of the changed object
+     */
+    public static CompletableFuture<CmisObject> supplyAsync(Session session, Supplier<CmisObject> update)
+    {
+        return supplyAsync(session, null, update);
+    }
+
+    /**
+     * Runs an update on the asynchronous executor of the session's object
+     * factory once a previous update has completed, successfully or not.
+     * Sessions with another object factory share an executor with the
+     * default settings.
+     * 
+     * @param session session
+     * @param previous the previous update, may be <code>null</code>
+     * @param update the update, returns the changed object
+     * 
+     * @return the future of the changed object
+     */
+    public static CompletableFuture<CmisObject> supplyAsync(Session session, CompletableFuture<?> previous,
+            final Supplier<CmisObject> update)
+    {
+        ObjectFactory objectFactory = session.getObjectFactory();
+        Executor executor = (objectFactory instanceof AlfrescoObjectFactoryImpl ? ((AlfrescoObjectFactoryImpl) objectFactory)
+                .getAsyncExecutor() : DefaultAsyncExecutor.INSTANCE);
+
+        if (previous == null)
+        {
+            return CompletableFuture.supplyAsync(update, executor);
+        }
+
+        return previous.handle(new BiFunction<Object, Throwable, Object>()
+        {
+            public Object apply(Object result, Throwable failure)
+            {
+                // the failure is reported by the previous future
+                return null;
+            }
+        }).thenApplyAsync(new Function<Object, CmisObject>()
+        {
+            public CmisObject apply(Object ignored)
+            {
+                return update.get();
+            }
+        }, executor);
+    }
+
+    /**
+     * Updates properties of an object asynchronously and refreshes it. The
+     * properties are copied before this method returns.
+     * 
+     * @param session session
+     * @param object the object
+     * @param properties the new property values
+     * 
+     * @return the future of the changed object, which is a new object if the
+     *         repository created one
+     */
+    public static CompletableFuture<CmisObject> updatePropertiesAsync(final Session session, final CmisObject object,
+            Map<String, ?> properties)
+    {
+        return updatePropertiesAsync(session, null, object, properties);
+    }
+
+    /**
+     * Updates properties of an object asynchronously and refreshes it. The
+     * properties are copied before this method returns.
+     * 
+     * @param session session
+     * @param queue the queue of the asynchronous updates of the object, may
+     *            be <code>null</code>
+     * @param object the object
+     * @param properties the new property values
+     * 
+     * @return the future of the changed object, which is a new object if the
+     *         repository created one
+     */
+    public static CompletableFuture<CmisObject> updatePropertiesAsync(final Session session, AlfrescoAsyncQueue queue,
+            final CmisObject object, Map<String, ?> properties)
+    {
+        final Map<String, Object> newProperties = (properties == null ? null : new LinkedHashMap<String, Object>(
+                properties));
+
+        Supplier<CmisObject> update = new Supplier<CmisObject>()
+        {
+            public CmisObject get()
+            {
+                ObjectId objectId = object.updateProperties(newProperties, true);
+                if (objectId == null || object.getId().equals(objectId.getId()))
+                {
+                    return object;
+                }
+
+                return session.getObject(objectId);
+            }
+        };
+
+        return (queue == null ? supplyAsync(session, update) : queue.submit(session, update));
+    }
+
     /**
      * Adds and removes aspects.
      * 
@@ -411,138 +737,177 @@ public class AlfrescoUtils
      * 
      * @return Object ID
      */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static String updateAspects(Session session, CmisObject object, ObjectType[] addAspectIds,
             ObjectType[] removeAspectIds, Map<String, ?> properties)
     {
-        String objectId = object.getId();
-        String repId = session.getRepositoryInfo().getId();
-        Holder<String> objectIdHolder = new Holder<String>(objectId);
-        Map<String, PropertyDefinition<?>> aspectPropertyDefinition = null;
-        // create properties object
-        Properties cmisProperties = new PropertiesImpl();
-        
-        CmisVersion cmisVersion = session.getRepositoryInfo().getCmisVersion();
-
-        if(cmisVersion.equals(CmisVersion.CMIS_1_1))
-        {
-        	// cmis 1.1
-        	Property<?> secondaryTypesProp = object.getProperty(PropertyIds.SECONDARY_OBJECT_TYPE_IDS);
-        	List currentSecondaryTypes = (List)secondaryTypesProp.getValue();
-        	Set<String> currentSecondaryTypesSet = new HashSet<String>(currentSecondaryTypes);
-
-	        if (addAspectIds != null)
-	        {
-	        	Set<String> addAspects = new HashSet<String>();
-	        	for(ObjectType type : addAspectIds)
-	        	{
-	        		addAspects.add(type.getId());
-	        	}
-	        	currentSecondaryTypesSet.addAll(addAspects);
-	        }
-
-	        if (removeAspectIds != null)
-	        {
-	        	Set<String> removeAspects = new HashSet<String>();
-	        	for(ObjectType type : removeAspectIds)
-	        	{
-	        		removeAspects.add(type.getId());
-	        	}
-	        	currentSecondaryTypesSet.removeAll(removeAspects);
-	        }
-	        
-	        List<String> secondaryTypesToSet = new ArrayList<String>();
-	        for(String secondaryType : currentSecondaryTypesSet)
-	        {
-	        	secondaryTypesToSet.add(secondaryType);
-	        }
-	        
-	        if(secondaryTypesToSet.isEmpty())
-	        {
-	        	// nothing to do
-	        	return objectId;
-	        }
-
-	        Collection<PropertyData<?>> props = new ArrayList<PropertyData<?>>(1);
-	        PropertyData<?> updatedSecondaryTypesProp = new PropertyIdImpl(PropertyIds.SECONDARY_OBJECT_TYPE_IDS, secondaryTypesToSet);
-	        props.add(updatedSecondaryTypesProp);
-	        cmisProperties = new PropertiesImpl(props);
-	        session.getBinding().getObjectService().updateProperties(repId, objectIdHolder, null, cmisProperties, null);
-        }
-        else if(cmisVersion.equals(CmisVersion.CMIS_1_0))
-        {
-        	// cmis 1.0
-	        List<CmisExtensionElement> alfrescoExtensionList = new ArrayList<CmisExtensionElement>();
-	
-	        if (addAspectIds != null)
-	        {
-	            aspectPropertyDefinition = new HashMap<String, PropertyDefinition<?>>();
-	            for (ObjectType type : addAspectIds)
-	            {
-	                if (type != null)
-	                {
-	                    alfrescoExtensionList.add(AlfrescoUtils.createAspectsToAddExtension(type));
-	
-	                    if (type.getPropertyDefinitions() != null)
-	                    {
-	                        aspectPropertyDefinition.putAll(type.getPropertyDefinitions());
-	                    }
-	                }
-	            }
-	        }
-	
-	        if (removeAspectIds != null)
-	        {
-	            for (ObjectType type : removeAspectIds)
-	            {
-	                if (type != null)
-	                {
-	                    alfrescoExtensionList.add(AlfrescoUtils.createAspectsToRemoveExtension(type));
-	                }
-	            }
-	        }
-	
-	        if (alfrescoExtensionList.isEmpty())
-	        {
-	            return objectId;
-	        }
-	
-	        // add property values
-	        if (addAspectIds != null && properties != null && !properties.isEmpty())
-	        {
-	            List<CmisExtensionElement> aspectProperties = new ArrayList<CmisExtensionElement>(properties.size());
-	
-	            for (Map.Entry<String, ?> property : properties.entrySet())
-	            {
-	                if ((property == null) || (property.getKey() == null))
-	                {
-	                    continue;
-	                }
-	
-	                String id = property.getKey();
-	                Object value = property.getValue();
-	
-	                if (!aspectPropertyDefinition.containsKey(id))
-	                {
-	                    throw new IllegalArgumentException("Property '" + id + "' is not an aspect property!");
-	                }
-	
-	                aspectProperties.add(createAspectPropertyExtension(aspectPropertyDefinition.get(id), value));
-	            }
-	
-	            alfrescoExtensionList.add(AlfrescoUtils.createAspectPropertiesExtension(aspectProperties));
-	        }
+        return updateAspects(session, object, addAspectIds, removeAspectIds, properties, null);
+    }
 
-	        cmisProperties = new PropertiesImpl();
-	        cmisProperties.setExtensions(Collections.singletonList(AlfrescoUtils
-	                .createSetAspectsExtension(alfrescoExtensionList)));
+    /**
+     * Adds and removes aspects.
+     * 
+     * @param session session
+     * @param object object
+     * @param addAspectIds The aspect IDs to add
+     * @param removeAspectIds The aspect IDs to remove
+     * @param properties properties
+     * @param changeToken receives the new change token, may be <code>null</code>
+     * 
+     * @return Object ID
+     */
+    public static String updateAspects(Session session, CmisObject object, ObjectType[] addAspectIds,
+            ObjectType[] removeAspectIds, Map<String, ?> properties, Holder<String> changeToken)
+    {
+        return getAspectStrategy(session).updateAspects(object, addAspectIds, removeAspectIds, properties,
+                changeToken);
+    }
+
+    /**
+     * Returns the aspect strategy for the CMIS version of the given session.
+     * 
+     * @param session session
+     * 
+     * @return the strategy of the session's object factory, or a new strategy
+     *         if the session does not use the Alfresco object factory
+     */
+    public static AlfrescoAspectStrategy getAspectStrategy(Session session)
+    {
+        ObjectFactory objectFactory = session.getObjectFactory();
+        if (objectFactory instanceof AlfrescoObjectFactoryImpl)
+        {
+            return ((AlfrescoObjectFactoryImpl) objectFactory).getAspectStrategy();
         }
 
-        session.getBinding().getObjectService().updateProperties(repId, objectIdHolder, null, cmisProperties, null);
+        return createAspectStrategy(session, false);
+    }
+
+    static AlfrescoAspectStrategy createAspectStrategy(Session session, boolean lazyProperties)
+    {
+        if (CmisVersion.CMIS_1_0.equals(session.getRepositoryInfo().getCmisVersion()))
+        {
+            return new AlfrescoCmis10AspectStrategy(session, lazyProperties);
+        }
+
+        return new AlfrescoCmis11AspectStrategy(session);
+    }
+
+    /**
+     * Returns the first value of an integer property as <code>long</code>.
+     * 
+     * @param object the object
+     * @param id the property id
+     * @param defaultValue the value if the property is not set
+     * 
+     * @return the property value
+     */
+    public static long getPropertyAsLong(CmisObject object, String id, long defaultValue)
+    {
+        Property<?> property = object.getProperty(id);
+        if (property instanceof AlfrescoPrimitiveProperty<?> && ((AlfrescoPrimitiveProperty<?>) property).isPrimitive())
+        {
+            AlfrescoPrimitiveProperty<?> primitive = (AlfrescoPrimitiveProperty<?>) property;
+            if (primitive.size() == 0)
+            {
+                return defaultValue;
+            }
+            return primitive.getLong(0);
+        }
+
+        Object value = (property == null ? null : property.getFirstValue());
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        if (value instanceof BigInteger)
+        {
+            if (((BigInteger) value).bitLength() > 63)
+            {
+                throw new IllegalArgumentException("Value of property '" + id + "' does not fit into a long!");
+            }
+            return ((BigInteger) value).longValue();
+        } else if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short)
+                || (value instanceof Byte))
+        {
+            return ((Number) value).longValue();
+        }
+
+        throw new IllegalArgumentException("Property '" + id + "' is not an integer property!");
+    }
+
+    /**
+     * Returns the first value of an integer or decimal property as
+     * <code>double</code>.
+     * 
+     * @param object the object
+     * @param id the property id
+     * @param defaultValue the value if the property is not set
+     * 
+     * @return the property value
+     */
+    public static double getPropertyAsDouble(CmisObject object, String id, double defaultValue)
+    {
+        Property<?> property = object.getProperty(id);
+        if (property instanceof AlfrescoPrimitiveProperty<?> && ((AlfrescoPrimitiveProperty<?>) property).isPrimitive())
+        {
+            AlfrescoPrimitiveProperty<?> primitive = (AlfrescoPrimitiveProperty<?>) property;
+            if (primitive.size() == 0)
+            {
+                return defaultValue;
+            }
+            return primitive.getDouble(0);
+        }
+
+        Object value = (property == null ? null : property.getFirstValue());
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        if (!(value instanceof Number))
+        {
+            throw new IllegalArgumentException("Property '" + id + "' is not a numeric property!");
+        }
+
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * Returns the first value of a boolean property as <code>boolean</code>.
+     * 
+     * @param object the object
+     * @param id the property id
+     * @param defaultValue the value if the property is not set
+     * 
+     * @return the property value
+     */
+    public static boolean getPropertyAsBoolean(CmisObject object, String id, boolean defaultValue)
+    {
+        Property<?> property = object.getProperty(id);
+        if (property instanceof AlfrescoPrimitiveProperty<?> && ((AlfrescoPrimitiveProperty<?>) property).isPrimitive())
+        {
+            AlfrescoPrimitiveProperty<?> primitive = (AlfrescoPrimitiveProperty<?>) property;
+            if (primitive.size() == 0)
+            {
+                return defaultValue;
+            }
+            return primitive.getBoolean(0);
+        }
+
+        Object value = (property == null ? null : property.getFirstValue());
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        if (!(value instanceof Boolean))
+        {
+            throw new IllegalArgumentException("Property '" + id + "' is not a boolean property!");
+        }
 
-        return objectIdHolder.getValue();
+        return ((Boolean) value).booleanValue();
     }
-    
+
 	private static CmisExtensionElement getExtension(List<CmisExtensionElement> extensions, String namespace, String name)
     {
     	CmisExtensionElement ret = null;
@@ -584,4 +949,66 @@ public class AlfrescoUtils
 
 		return mandatoryAspects;
     }
+
+    /**
+     * Returns the mandatory aspects of the given type and its parent types,
+     * including the mandatory aspects of these aspects and of their parents.
+     * 
+     * @param session the session
+     * @param type the type
+     * @return the aspect ids, closest first
+     */
+    public static List<String> getMandatoryAspectClosure(Session session, ObjectType type)
+    {
+        Set<String> closure = new LinkedHashSet<String>();
+        addMandatoryAspectClosure(session, type, closure);
+        return new ArrayList<String>(closure);
+    }
+
+    /**
+     * Adds the mandatory aspect closure of the given type to a collection.
+     * 
+     * @param session the session
+     * @param type the type
+     * @param closure the collection the aspect ids are added to, closest first
+     * @return <code>true</code> if all aspect types were resolved,
+     *         <code>false</code> if the closure may be incomplete
+     */
+    public static boolean addMandatoryAspectClosure(Session session, ObjectType type, Collection<String> closure)
+    {
+        boolean complete = true;
+        LinkedList<String> pending = new LinkedList<String>();
+        addMandatoryAspects(type, pending);
+
+        AlfrescoAspectRegistry registry = AlfrescoAspectRegistry.get(session);
+        while (!pending.isEmpty())
+        {
+            String aspectId = pending.removeFirst();
+            if (!closure.contains(aspectId))
+            {
+                closure.add(aspectId);
+                ObjectType aspectType = registry.findAspectType(aspectId);
+                if (aspectType == null)
+                {
+                    complete = false;
+                } else
+                {
+                    addMandatoryAspects(aspectType, pending);
+                }
+            }
+        }
+
+        return complete;
+    }
+
+    private static void addMandatoryAspects(ObjectType type, List<String> aspectIds)
+    {
+        for (ObjectType current = type; current != null; current = current.getParentType())
+        {
+            if (current instanceof AlfrescoType)
+            {
+                aspectIds.addAll(((AlfrescoType) current).getMandatoryAspects());
+            }
+        }
+    }
 }
@@ -15,14 +15,23 @@ public class AlfrescoFolderType extends FolderTypeImpl implements AlfrescoType
 {
 	private static final long serialVersionUID = -7236093421190237728L;
 
+	private final Session session;
+	private final AlfrescoMandatoryAspects mandatoryAspects = new AlfrescoMandatoryAspects();
+
     public AlfrescoFolderType(Session session, FolderTypeDefinition typeDefinition)
     {
 		super(session, typeDefinition);
+		this.session = session;
 		setExtensions(typeDefinition.getExtensions());
 	}
 
 	public List<String> getMandatoryAspects()
 	{
-		return AlfrescoUtils.getMandatoryAspects(this);
+		return mandatoryAspects.getMandatoryAspects(this);
+	}
+
+	public List<String> getMandatoryAspectClosure()
+	{
+		return mandatoryAspects.getMandatoryAspectClosure(session, this);
 	}
 }
@@ -14,12 +14,23 @@ public class AlfrescoItemType extends ItemTypeImpl implements AlfrescoType
 	 */
 	private static final long serialVersionUID = 8384158771339321883L;
 
+	private final Session session;
+	private final AlfrescoMandatoryAspects mandatoryAspects = new AlfrescoMandatoryAspects();
+
 	public AlfrescoItemType(Session session, ItemTypeDefinition typeDefinition) {
 		super(session, typeDefinition);
+		this.session = session;
+		setExtensions(typeDefinition.getExtensions());
+	}
+
+	public List<String> getMandatoryAspects()
+	{
+		return mandatoryAspects.getMandatoryAspects(this);
 	}
 
-	public List<String> getMandatoryAspects() {
-		return AlfrescoUtils.getMandatoryAspects(this);
+	public List<String> getMandatoryAspectClosure()
+	{
+		return mandatoryAspects.getMandatoryAspectClosure(session, this);
 	}
 
 
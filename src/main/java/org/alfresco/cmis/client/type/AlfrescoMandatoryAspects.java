@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.type;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.alfresco.cmis.client.impl.AlfrescoUtils;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Session;
+
+/**
+ * Lazily computed mandatory aspects of an Alfresco type.
+ * <p>
+ * The closure is only kept once all of its aspect types could be resolved,
+ * an incomplete closure is computed again on the next call.
+ */
+final class AlfrescoMandatoryAspects implements Serializable
+{
+	private static final long serialVersionUID = 4712804693720658431L;
+
+	private transient volatile List<String> mandatoryAspects;
+	private transient volatile List<String> mandatoryAspectClosure;
+
+	public List<String> getMandatoryAspects(ObjectType type)
+	{
+		List<String> result = mandatoryAspects;
+		if (result == null)
+		{
+			result = Collections.unmodifiableList(AlfrescoUtils.getMandatoryAspects(type));
+			mandatoryAspects = result;
+		}
+		return result;
+	}
+
+	public List<String> getMandatoryAspectClosure(Session session, ObjectType type)
+	{
+		List<String> result = mandatoryAspectClosure;
+		if (result == null)
+		{
+			Set<String> closure = new LinkedHashSet<String>();
+			boolean complete = AlfrescoUtils.addMandatoryAspectClosure(session, type, closure);
+			result = Collections.unmodifiableList(new ArrayList<String>(closure));
+			if (complete)
+			{
+				mandatoryAspectClosure = result;
+			}
+		}
+		return result;
+	}
+}
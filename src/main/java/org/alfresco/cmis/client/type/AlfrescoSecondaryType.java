@@ -11,15 +11,24 @@ public class AlfrescoSecondaryType extends SecondaryTypeImpl implements Alfresco
 {
 	private static final long serialVersionUID = 3985314017717890607L;
 
+	private final Session session;
+	private final AlfrescoMandatoryAspects mandatoryAspects = new AlfrescoMandatoryAspects();
+
 	public AlfrescoSecondaryType(Session session, SecondaryTypeDefinition typeDefinition)
     {
 		super(session, typeDefinition);
+		this.session = session;
 		setExtensions(typeDefinition.getExtensions());
 	}
 
 	public List<String> getMandatoryAspects()
 	{
-		return AlfrescoUtils.getMandatoryAspects(this);
+		return mandatoryAspects.getMandatoryAspects(this);
+	}
+
+	public List<String> getMandatoryAspectClosure()
+	{
+		return mandatoryAspects.getMandatoryAspectClosure(session, this);
 	}
 
 }
@@ -9,4 +9,12 @@ import java.util.List;
 public interface AlfrescoType
 {
 	public List<String> getMandatoryAspects();
+
+	/**
+	 * Returns the aspects an object of this type always has: the mandatory
+	 * aspects of this type and its parent types, and transitively the mandatory
+	 * aspects of those aspects. The result is computed once per type, unless
+	 * an aspect type couldn't be resolved.
+	 */
+	public List<String> getMandatoryAspectClosure();
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.junit.Test;
+
+/**
+ * Checks how diff updates detect changed property values.
+ */
+public class AlfrescoChangedPropertiesTest
+{
+    @Test
+    public void testIntegers()
+    {
+        BigInteger loaded = BigInteger.valueOf(42);
+
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, BigInteger.valueOf(42)));
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, Integer.valueOf(42)));
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, Long.valueOf(42)));
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, Short.valueOf((short) 42)));
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, Byte.valueOf((byte) 42)));
+
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, Integer.valueOf(43)));
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, Double.valueOf(42)));
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, "42"));
+        assertFalse(AlfrescoUtils.isSameValueElement(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE),
+                Long.valueOf(Long.MIN_VALUE)));
+    }
+
+    @Test
+    public void testDecimals()
+    {
+        BigDecimal loaded = new BigDecimal("1.50");
+
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, new BigDecimal("1.5")));
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, new BigDecimal("1.500")));
+
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, new BigDecimal("1.51")));
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, Double.valueOf(1.5)));
+    }
+
+    @Test
+    public void testCalendarAndDate()
+    {
+        GregorianCalendar loaded = calendar("UTC", 1310725800000L);
+
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, new Date(1310725800000L)));
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, new Date(1310725800001L)));
+    }
+
+    @Test
+    public void testCalendars()
+    {
+        GregorianCalendar loaded = calendar("UTC", 1310725800000L);
+
+        // the same instant in another time zone
+        assertTrue(AlfrescoUtils.isSameValueElement(loaded, calendar("GMT+05:30", 1310725800000L)));
+        assertFalse(AlfrescoUtils.isSameValueElement(loaded, calendar("UTC", 1310725801000L)));
+    }
+
+    @Test
+    public void testNulls()
+    {
+        assertTrue(AlfrescoUtils.isSameValueElement(null, null));
+        assertFalse(AlfrescoUtils.isSameValueElement(null, "a"));
+        assertFalse(AlfrescoUtils.isSameValueElement("a", null));
+    }
+
+    @Test
+    public void testValues()
+    {
+        List<String> loaded = Arrays.asList("a", "b");
+
+        assertTrue(AlfrescoUtils.isSameValue(loaded, Arrays.asList("a", "b")));
+        assertFalse(AlfrescoUtils.isSameValue(loaded, Arrays.asList("b", "a")));
+        assertFalse(AlfrescoUtils.isSameValue(loaded, Arrays.asList("a")));
+        assertFalse(AlfrescoUtils.isSameValue(loaded, "a"));
+
+        assertTrue(AlfrescoUtils.isSameValue(Collections.singletonList("a"), "a"));
+        assertTrue(AlfrescoUtils.isSameValue(Collections.singletonList(BigInteger.ONE), Collections.singletonList(1)));
+
+        // no value
+        assertTrue(AlfrescoUtils.isSameValue(null, null));
+        assertTrue(AlfrescoUtils.isSameValue(null, Collections.emptyList()));
+        assertTrue(AlfrescoUtils.isSameValue(Collections.emptyList(), null));
+        assertFalse(AlfrescoUtils.isSameValue(null, "a"));
+        assertFalse(AlfrescoUtils.isSameValue(Collections.singletonList("a"), null));
+    }
+
+    @Test
+    public void testChangedProperties()
+    {
+        Map<String, List<?>> loaded = new HashMap<String, List<?>>();
+        loaded.put(PropertyIds.NAME, Collections.singletonList("doc.txt"));
+        loaded.put("cm:count", Collections.singletonList(BigInteger.valueOf(3)));
+        loaded.put("cm:price", Collections.singletonList(new BigDecimal("9.90")));
+        loaded.put("cm:modified", Collections.singletonList(calendar("UTC", 1310725800000L)));
+        loaded.put("cm:title", Collections.emptyList());
+        CmisObject object = createObject(loaded);
+
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put(PropertyIds.OBJECT_TYPE_ID, "cmis:document");
+        properties.put(PropertyIds.NAME, "doc.txt");
+        properties.put("cm:count", Integer.valueOf(3));
+        properties.put("cm:price", new BigDecimal("9.9"));
+        properties.put("cm:modified", new Date(1310725800000L));
+        properties.put("cm:title", null);
+
+        assertEquals(Collections.emptyMap(), AlfrescoUtils.getChangedProperties(object, properties));
+
+        properties.put(PropertyIds.NAME, "renamed.txt");
+        properties.put("cm:count", Long.valueOf(4));
+        properties.put("cm:author", "me");
+
+        Map<String, Object> expected = new LinkedHashMap<String, Object>();
+        expected.put(PropertyIds.NAME, "renamed.txt");
+        expected.put("cm:count", Long.valueOf(4));
+        expected.put("cm:author", "me");
+
+        // properties that are not loaded are always sent
+        assertEquals(expected, AlfrescoUtils.getChangedProperties(object, properties));
+        assertEquals(Collections.emptyMap(), AlfrescoUtils.getChangedProperties(object, null));
+    }
+
+    private static GregorianCalendar calendar(String timeZone, long millis)
+    {
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone(timeZone));
+        calendar.setTimeInMillis(millis);
+
+        return calendar;
+    }
+
+    private static CmisObject createObject(final Map<String, List<?>> values)
+    {
+        return (CmisObject) Proxy.newProxyInstance(CmisObject.class.getClassLoader(),
+                new Class<?>[] { CmisObject.class }, new InvocationHandler()
+                {
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                    {
+                        if (!"getProperty".equals(method.getName()) || !values.containsKey(args[0]))
+                        {
+                            return null;
+                        }
+
+                        return createProperty(values.get(args[0]));
+                    }
+                });
+    }
+
+    private static Property<?> createProperty(final List<?> values)
+    {
+        return (Property<?>) Proxy.newProxyInstance(Property.class.getClassLoader(),
+                new Class<?>[] { Property.class }, new InvocationHandler()
+                {
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                    {
+                        return "getValues".equals(method.getName()) ? values : null;
+                    }
+                });
+    }
+}
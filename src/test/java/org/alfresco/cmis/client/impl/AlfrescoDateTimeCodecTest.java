@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import javax.xml.datatype.DatatypeFactory;
+
+import org.junit.Test;
+
+/**
+ * Compares {@link AlfrescoDateTimeCodec} with the {@link DatatypeFactory} it
+ * replaces.
+ */
+public class AlfrescoDateTimeCodecTest
+{
+    private static final String[] TIME_ZONES = { "UTC", "GMT+05:30", "GMT-08:00", "Europe/London",
+            "America/New_York", "Pacific/Chatham" };
+
+    @Test
+    public void testFormat() throws Exception
+    {
+        for (String timeZone : TIME_ZONES)
+        {
+            assertFormat(calendar(timeZone, 2011, Calendar.JANUARY, 1, 0, 0, 0, 0));
+            assertFormat(calendar(timeZone, 2011, Calendar.JULY, 15, 13, 45, 30, 123));
+            assertFormat(calendar(timeZone, 1, Calendar.JANUARY, 1, 0, 0, 0, 7));
+            assertFormat(calendar(timeZone, 9999, Calendar.DECEMBER, 31, 23, 59, 59, 999));
+        }
+    }
+
+    @Test
+    public void testFormatFallback() throws Exception
+    {
+        assertFormat(calendar("UTC", 10000, Calendar.JANUARY, 1, 0, 0, 0, 0));
+
+        GregorianCalendar beforeChrist = calendar("UTC", 100, Calendar.MARCH, 1, 12, 0, 0, 0);
+        beforeChrist.set(Calendar.ERA, GregorianCalendar.BC);
+        assertFormat(beforeChrist);
+    }
+
+    @Test
+    public void testParse() throws Exception
+    {
+        assertParse("2011-07-15T13:45:30.123Z");
+        assertParse("2011-07-15T13:45:30Z");
+        assertParse("2011-07-15T13:45:30.123+05:30");
+        assertParse("2011-07-15T13:45:30.123-08:00");
+        assertParse("2011-07-15T13:45:30+14:00");
+        assertParse("2011-07-15T13:45:30-00:00");
+        assertParse("2011-07-15T13:45:30.1Z");
+        assertParse("2011-07-15T13:45:30.12Z");
+        assertParse("0001-01-01T00:00:00.000Z");
+        assertParse("9999-12-31T23:59:59.999Z");
+        assertParse("2012-02-29T00:00:00Z");
+        assertParse(" 2011-07-15T13:45:30.123Z ");
+    }
+
+    @Test
+    public void testParseWithoutTimeZone() throws Exception
+    {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try
+        {
+            for (String timeZone : TIME_ZONES)
+            {
+                TimeZone.setDefault(TimeZone.getTimeZone(timeZone));
+                assertParse("2011-07-15T13:45:30.123");
+                assertParse("2011-01-15T13:45:30");
+            }
+        } finally
+        {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    @Test
+    public void testParseFractionDigits() throws Exception
+    {
+        // truncated to milliseconds
+        assertParse("2011-07-15T13:45:30.1234Z");
+        assertParse("2011-07-15T13:45:30.123456789+01:00");
+        assertParse("2011-07-15T13:45:30.9999Z");
+        assertEquals(123, AlfrescoDateTimeCodec.parse("2011-07-15T13:45:30.123999Z").get(Calendar.MILLISECOND));
+    }
+
+    @Test
+    public void testParseFallback() throws Exception
+    {
+        assertParse("10000-01-01T00:00:00Z");
+        assertParse("-0001-01-01T00:00:00Z");
+        assertParse("2011-07-15T24:00:00Z");
+    }
+
+    @Test
+    public void testParseInvalid() throws Exception
+    {
+        assertInvalid("2011-02-30T00:00:00Z");
+        assertInvalid("2011-02-29T00:00:00Z");
+        assertInvalid("2011-13-01T00:00:00Z");
+        assertInvalid("2011-07-15T13:60:00Z");
+        assertInvalid("2011-07-15T13:45:30.Z");
+        assertInvalid("2011-07-15T13:45:30+15:00");
+        assertInvalid("2011-07-15 13:45:30Z");
+    }
+
+    private static GregorianCalendar calendar(String timeZone, int year, int month, int day, int hour, int minute,
+            int second, int millis)
+    {
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone(timeZone));
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, second);
+        calendar.set(Calendar.MILLISECOND, millis);
+        return calendar;
+    }
+
+    private static void assertFormat(GregorianCalendar calendar) throws Exception
+    {
+        String expected = DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar).toXMLFormat();
+        assertEquals(expected, AlfrescoDateTimeCodec.format(calendar));
+    }
+
+    private static void assertParse(String value) throws Exception
+    {
+        GregorianCalendar expected = DatatypeFactory.newInstance().newXMLGregorianCalendar(value.trim())
+                .toGregorianCalendar();
+        GregorianCalendar actual = AlfrescoDateTimeCodec.parse(value);
+
+        assertEquals(value, expected.getTimeInMillis(), actual.getTimeInMillis());
+        assertEquals(value, expected.getTimeZone().getRawOffset(), actual.getTimeZone().getRawOffset());
+        assertEquals(value, expected.get(Calendar.ZONE_OFFSET) + expected.get(Calendar.DST_OFFSET),
+                actual.get(Calendar.ZONE_OFFSET) + actual.get(Calendar.DST_OFFSET));
+        assertEquals(value, AlfrescoDateTimeCodec.format(expected), AlfrescoDateTimeCodec.format(actual));
+    }
+
+    private static void assertInvalid(String value)
+    {
+        try
+        {
+            AlfrescoDateTimeCodec.parse(value);
+            fail(value);
+        } catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+}
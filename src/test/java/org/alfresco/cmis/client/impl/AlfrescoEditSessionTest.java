@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.alfresco.cmis.client.AlfrescoDocument;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the update an {@link AlfrescoEditSessionImpl} sends on flush.
+ */
+public class AlfrescoEditSessionTest
+{
+    private AlfrescoTestRepository repository;
+    private Session session;
+
+    @Before
+    public void setUp()
+    {
+        repository = new AlfrescoTestRepository(CmisVersion.CMIS_1_0);
+        repository.addAspect("P:cm:titled", "cm:title");
+        repository.addAspect("P:cm:author", "cm:author");
+
+        // P:cm:undeployed is not a known type
+        repository.addDocument("doc", "doc.txt", "P:cm:titled", "P:cm:undeployed");
+
+        session = repository.createSession(null);
+    }
+
+    @Test
+    public void testFlushWithUnknownAspect()
+    {
+        AlfrescoDocument document = (AlfrescoDocument) session.getObject("doc");
+        repository.resetCalls();
+
+        document.edit().addAspect("P:cm:author").updateProperties(
+                Collections.singletonMap(PropertyIds.NAME, "renamed.txt")).flush();
+
+        assertEquals(1, repository.getCalls("updateProperties"));
+        assertEquals(Arrays.asList("P:cm:titled", "P:cm:author"), sent(0, AlfrescoUtils.ASPECTS_TO_ADD));
+        assertEquals(Collections.emptyList(), sent(0, AlfrescoUtils.ASPECTS_TO_REMOVE));
+        assertEquals(Arrays.asList("P:cm:titled", "P:cm:undeployed", "P:cm:author"),
+                repository.getValues("doc", PropertyIds.SECONDARY_OBJECT_TYPE_IDS));
+        assertEquals("renamed.txt", document.getName());
+        assertTrue(document.hasAspect("P:cm:author"));
+    }
+
+    @Test
+    public void testFlushRemovesUnknownAspect()
+    {
+        AlfrescoDocument document = (AlfrescoDocument) session.getObject("doc");
+        repository.resetCalls();
+
+        document.edit().removeAspect("P:cm:undeployed").flush();
+
+        assertEquals(1, repository.getCalls("updateProperties"));
+        assertEquals(Collections.singletonList("P:cm:titled"), sent(0, AlfrescoUtils.ASPECTS_TO_ADD));
+        assertEquals(Collections.singletonList("P:cm:undeployed"), sent(0, AlfrescoUtils.ASPECTS_TO_REMOVE));
+        assertEquals(Collections.singletonList("P:cm:titled"),
+                repository.getValues("doc", PropertyIds.SECONDARY_OBJECT_TYPE_IDS));
+        assertFalse(document.hasAspect("P:cm:undeployed"));
+    }
+
+    /**
+     * Returns the aspect ids of a <code>setAspects</code> extension element.
+     */
+    private List<String> sent(int update, String name)
+    {
+        List<String> aspectIds = new ArrayList<String>();
+        for (CmisExtensionElement extension : repository.getUpdates().get(update).getExtensions())
+        {
+            if (AlfrescoUtils.SET_ASPECTS.equals(extension.getName()))
+            {
+                for (CmisExtensionElement child : extension.getChildren())
+                {
+                    if (name.equals(child.getName()))
+                    {
+                        aspectIds.add(child.getValue());
+                    }
+                }
+            }
+        }
+
+        return aspectIds;
+    }
+}
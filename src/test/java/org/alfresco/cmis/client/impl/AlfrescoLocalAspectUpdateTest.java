@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.cmis.client.AlfrescoDocument;
+import org.alfresco.cmis.client.AlfrescoSessionParameter;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that aspect changes with
+ * {@link AlfrescoSessionParameter#LOCAL_ASPECT_UPDATES} need one round trip.
+ */
+public class AlfrescoLocalAspectUpdateTest
+{
+    private AlfrescoTestRepository repository;
+    private Session session;
+
+    @Before
+    public void setUp()
+    {
+        repository = new AlfrescoTestRepository();
+        repository.addAspect("P:cm:titled", "cm:title", "cm:description");
+        repository.addAspect("P:cm:author", "cm:author");
+        repository.addAspect("P:cm:versionable");
+        repository.addDefaultProperty("P:cm:versionable", "cm:autoVersion", "true");
+        repository.addDocument("doc", "doc.txt", "P:cm:titled");
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(AlfrescoSessionParameter.LOCAL_ASPECT_UPDATES, "true");
+        session = repository.createSession(parameters);
+    }
+
+    @Test
+    public void testAddAspect()
+    {
+        AlfrescoDocument document = (AlfrescoDocument) session.getObject("doc");
+        repository.resetCalls();
+
+        CmisObject result = document.addAspect("P:cm:author");
+
+        assertSame(document, result);
+        assertEquals(1, repository.getCalls("updateProperties"));
+        assertEquals(0, repository.getCalls("getObject"));
+        assertEquals(sent(0), document.<List<String>> getPropertyValue(PropertyIds.SECONDARY_OBJECT_TYPE_IDS));
+        assertTrue(document.hasAspect("P:cm:author"));
+        assertTrue(document.hasAspect("P:cm:titled"));
+        assertEquals(repository.getValues("doc", PropertyIds.CHANGE_TOKEN).get(0),
+                document.getPropertyValue(PropertyIds.CHANGE_TOKEN));
+    }
+
+    @Test
+    public void testRemoveAspect()
+    {
+        AlfrescoDocument document = (AlfrescoDocument) session.getObject("doc");
+        document.addAspect("P:cm:author");
+        repository.resetCalls();
+
+        document.removeAspect("P:cm:titled");
+
+        assertEquals(1, repository.getCalls("updateProperties"));
+        assertEquals(0, repository.getCalls("getObject"));
+        assertEquals(Collections.singletonList("P:cm:author"), sent(0));
+        assertFalse(document.hasAspect("P:cm:titled"));
+        assertTrue(document.hasAspect("P:cm:author"));
+    }
+
+    @Test
+    public void testRemoveLastAspect()
+    {
+        AlfrescoDocument document = (AlfrescoDocument) session.getObject("doc");
+        repository.resetCalls();
+
+        document.removeAspect("P:cm:titled");
+
+        assertEquals(1, repository.getCalls("updateProperties"));
+        assertEquals(0, repository.getCalls("getObject"));
+        assertEquals(Collections.emptyList(), sent(0));
+        assertFalse(document.hasAspect("P:cm:titled"));
+        assertEquals(0, document.getAspects().size());
+    }
+
+    @Test
+    public void testAddAspectWithDefaultValues()
+    {
+        AlfrescoDocument document = (AlfrescoDocument) session.getObject("doc");
+        repository.resetCalls();
+
+        document.addAspect("P:cm:versionable");
+
+        // the object is reloaded to get the default value
+        assertEquals(1, repository.getCalls("updateProperties"));
+        assertEquals(1, repository.getCalls("getObject"));
+        assertTrue(document.hasAspect("P:cm:versionable"));
+        assertEquals("true", document.getPropertyValue("cm:autoVersion"));
+    }
+
+    private List<?> sent(int update)
+    {
+        Properties properties = repository.getUpdates().get(update);
+        return properties.getProperties().get(PropertyIds.SECONDARY_OBJECT_TYPE_IDS).getValues();
+    }
+}
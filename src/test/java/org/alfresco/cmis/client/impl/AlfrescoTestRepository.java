@@ -0,0 +1,479 @@
+/*
+ * Copyright 2026-2026 Alfresco Software Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.cmis.client.impl;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.SessionFactoryImpl;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.data.PropertyData;
+import org.apache.chemistry.opencmis.commons.definitions.MutablePropertyDefinition;
+import org.apache.chemistry.opencmis.commons.definitions.MutableTypeDefinition;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
+import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
+import org.apache.chemistry.opencmis.commons.definitions.TypeDefinitionContainer;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.enums.BindingType;
+import org.apache.chemistry.opencmis.commons.enums.Cardinality;
+import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.apache.chemistry.opencmis.commons.enums.PropertyType;
+import org.apache.chemistry.opencmis.commons.enums.Updatability;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisNotSupportedException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.CmisExtensionElementImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ObjectDataImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyStringImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryCapabilitiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.TypeDefinitionContainerImpl;
+import org.apache.chemistry.opencmis.commons.impl.server.AbstractServiceFactory;
+import org.apache.chemistry.opencmis.commons.server.CallContext;
+import org.apache.chemistry.opencmis.commons.server.CmisService;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+import org.apache.chemistry.opencmis.server.support.TypeDefinitionFactory;
+
+/**
+ * A small repository that is connected through the local binding. It counts
+ * the service calls, so that tests can check how many round trips an
+ * operation needs. Like Alfresco, it reports aspects as secondary types on
+ * CMIS 1.1 and as extensions on CMIS 1.0.
+ */
+public class AlfrescoTestRepository
+{
+    public static final String REPOSITORY_ID = "test";
+
+    private static final String REPOSITORY_KEY = "org.alfresco.cmis.client.test.repository";
+
+    private static final Map<String, AlfrescoTestRepository> REPOSITORIES = new ConcurrentHashMap<String, AlfrescoTestRepository>();
+    private static final AtomicInteger KEYS = new AtomicInteger();
+
+    private final CmisVersion cmisVersion;
+    private final String aspectRootTypeId;
+    private final TypeDefinitionFactory typeFactory = TypeDefinitionFactory.newInstance();
+    private final Map<String, TypeDefinition> types = new ConcurrentHashMap<String, TypeDefinition>();
+    private final Map<String, Map<String, PropertyData<?>>> objects = new ConcurrentHashMap<String, Map<String, PropertyData<?>>>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<String, AtomicInteger>();
+    private final List<Properties> updates = new CopyOnWriteArrayList<Properties>();
+    private final AtomicInteger changeTokens = new AtomicInteger();
+
+    public AlfrescoTestRepository()
+    {
+        this(CmisVersion.CMIS_1_1);
+    }
+
+    public AlfrescoTestRepository(CmisVersion cmisVersion)
+    {
+        this.cmisVersion = cmisVersion;
+
+        addType(typeFactory.createBaseDocumentTypeDefinition(cmisVersion));
+        addType(typeFactory.createBaseFolderTypeDefinition(cmisVersion));
+        if (cmisVersion == CmisVersion.CMIS_1_0)
+        {
+            aspectRootTypeId = BaseTypeId.CMIS_POLICY.value();
+            addType(typeFactory.createBasePolicyTypeDefinition(cmisVersion));
+        } else
+        {
+            aspectRootTypeId = BaseTypeId.CMIS_SECONDARY.value();
+            addType(typeFactory.createBaseSecondaryTypeDefinition(cmisVersion));
+        }
+    }
+
+    /**
+     * Opens a session with the Alfresco object factory.
+     */
+    public Session createSession(Map<String, String> parameters)
+    {
+        String key = String.valueOf(KEYS.incrementAndGet());
+        REPOSITORIES.put(key, this);
+
+        Map<String, String> sessionParameters = new HashMap<String, String>();
+        sessionParameters.put(SessionParameter.BINDING_TYPE, BindingType.LOCAL.value());
+        sessionParameters.put(SessionParameter.LOCAL_FACTORY, ServiceFactory.class.getName());
+        sessionParameters.put(SessionParameter.REPOSITORY_ID, REPOSITORY_ID);
+        sessionParameters.put(SessionParameter.OBJECT_FACTORY_CLASS, AlfrescoObjectFactoryImpl.class.getName());
+        sessionParameters.put(REPOSITORY_KEY, key);
+        if (parameters != null)
+        {
+            sessionParameters.putAll(parameters);
+        }
+
+        return SessionFactoryImpl.newInstance().createSession(sessionParameters);
+    }
+
+    /**
+     * Adds an aspect with optional string properties.
+     */
+    public MutableTypeDefinition addAspect(String id, String... propertyIds)
+    {
+        MutableTypeDefinition aspect = typeFactory.createChildTypeDefinition(types.get(aspectRootTypeId), id);
+        for (String propertyId : propertyIds)
+        {
+            aspect.addPropertyDefinition(createProperty(propertyId));
+        }
+
+        addType(aspect);
+        return aspect;
+    }
+
+    /**
+     * Adds a string property with a default value to an aspect.
+     */
+    public void addDefaultProperty(String aspectId, String propertyId, String defaultValue)
+    {
+        MutablePropertyDefinition<String> definition = createProperty(propertyId);
+        definition.setDefaultValue(Collections.singletonList(defaultValue));
+        ((MutableTypeDefinition) types.get(aspectId)).addPropertyDefinition(definition);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MutablePropertyDefinition<String> createProperty(String propertyId)
+    {
+        return (MutablePropertyDefinition<String>) typeFactory.createPropertyDefinition(propertyId, propertyId,
+                propertyId, PropertyType.STRING, Cardinality.SINGLE, Updatability.READWRITE, false, false, true, true);
+    }
+
+    private void addType(TypeDefinition type)
+    {
+        types.put(type.getId(), type);
+    }
+
+    /**
+     * Adds a document. The aspect ids do not have to be known types.
+     */
+    public void addDocument(String id, String name, String... aspectIds)
+    {
+        Map<String, PropertyData<?>> properties = new ConcurrentHashMap<String, PropertyData<?>>();
+        put(properties, new PropertyIdImpl(PropertyIds.OBJECT_ID, id));
+        put(properties, new PropertyIdImpl(PropertyIds.BASE_TYPE_ID, BaseTypeId.CMIS_DOCUMENT.value()));
+        put(properties, new PropertyIdImpl(PropertyIds.OBJECT_TYPE_ID, BaseTypeId.CMIS_DOCUMENT.value()));
+        put(properties, new PropertyStringImpl(PropertyIds.NAME, name));
+        put(properties, new PropertyIdImpl(PropertyIds.SECONDARY_OBJECT_TYPE_IDS, new ArrayList<String>(
+                Arrays.asList(aspectIds))));
+        put(properties, new PropertyStringImpl(PropertyIds.CHANGE_TOKEN, nextChangeToken()));
+        objects.put(id, properties);
+    }
+
+    /**
+     * Returns a property value of a stored document.
+     */
+    public List<?> getValues(String objectId, String propertyId)
+    {
+        PropertyData<?> property = objects.get(objectId).get(propertyId);
+        return property == null ? null : property.getValues();
+    }
+
+    private static void put(Map<String, PropertyData<?>> properties, PropertyData<?> property)
+    {
+        properties.put(property.getId(), property);
+    }
+
+    private String nextChangeToken()
+    {
+        return String.valueOf(changeTokens.incrementAndGet());
+    }
+
+    /**
+     * Returns how often a service method has been called.
+     */
+    public int getCalls(String method)
+    {
+        AtomicInteger count = calls.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    public void resetCalls()
+    {
+        calls.clear();
+        updates.clear();
+    }
+
+    /**
+     * Returns the properties of the <code>updateProperties</code> calls.
+     */
+    public List<Properties> getUpdates()
+    {
+        return updates;
+    }
+
+    private Object invoke(String method, Object[] args)
+    {
+        AtomicInteger count = calls.get(method);
+        if (count == null)
+        {
+            calls.putIfAbsent(method, new AtomicInteger());
+            count = calls.get(method);
+        }
+        count.incrementAndGet();
+
+        if ("getRepositoryInfos".equals(method))
+        {
+            return Collections.singletonList(getRepositoryInfo());
+        }
+        else if ("getRepositoryInfo".equals(method))
+        {
+            return getRepositoryInfo();
+        }
+        else if ("getTypeDefinition".equals(method))
+        {
+            return getType((String) args[1]);
+        }
+        else if ("getTypeChildren".equals(method))
+        {
+            List<TypeDefinition> children = getChildren((String) args[1]);
+            return typeFactory.createTypeDefinitionList(children, false, BigInteger.valueOf(children.size()));
+        }
+        else if ("getTypeDescendants".equals(method))
+        {
+            return getDescendants((String) args[1]);
+        }
+        else if ("getObject".equals(method))
+        {
+            return getObject((String) args[1]);
+        }
+        else if ("updateProperties".equals(method))
+        {
+            updateProperties(args);
+            return null;
+        }
+        else if ("close".equals(method))
+        {
+            return null;
+        }
+
+        throw new CmisNotSupportedException(method);
+    }
+
+    private RepositoryInfoImpl getRepositoryInfo()
+    {
+        RepositoryInfoImpl info = new RepositoryInfoImpl();
+        info.setId(REPOSITORY_ID);
+        info.setName(REPOSITORY_ID);
+        info.setCmisVersionSupported(cmisVersion.value());
+        info.setCmisVersion(cmisVersion);
+        info.setRootFolder("root");
+        info.setCapabilities(new RepositoryCapabilitiesImpl());
+
+        return info;
+    }
+
+    private TypeDefinition getType(String typeId)
+    {
+        TypeDefinition type = types.get(typeId);
+        if (type == null)
+        {
+            throw new CmisObjectNotFoundException("Type '" + typeId + "' is unknown!");
+        }
+
+        return type;
+    }
+
+    private List<TypeDefinition> getChildren(String typeId)
+    {
+        List<TypeDefinition> children = new ArrayList<TypeDefinition>();
+        for (TypeDefinition type : types.values())
+        {
+            if (typeId == null ? type.getParentTypeId() == null : typeId.equals(type.getParentTypeId()))
+            {
+                children.add(type);
+            }
+        }
+
+        return children;
+    }
+
+    private List<TypeDefinitionContainer> getDescendants(String typeId)
+    {
+        List<TypeDefinitionContainer> result = new ArrayList<TypeDefinitionContainer>();
+        for (TypeDefinition child : getChildren(typeId))
+        {
+            TypeDefinitionContainerImpl container = new TypeDefinitionContainerImpl(child);
+            container.setChildren(getDescendants(child.getId()));
+            result.add(container);
+        }
+
+        return result;
+    }
+
+    private ObjectData getObject(String objectId)
+    {
+        Map<String, PropertyData<?>> properties = objects.get(objectId);
+        if (properties == null)
+        {
+            throw new CmisObjectNotFoundException("Object '" + objectId + "' is unknown!");
+        }
+
+        PropertiesImpl result = new PropertiesImpl(new ArrayList<PropertyData<?>>(properties.values()));
+        if (cmisVersion == CmisVersion.CMIS_1_0)
+        {
+            result.removeProperty(PropertyIds.SECONDARY_OBJECT_TYPE_IDS);
+
+            List<CmisExtensionElement> appliedAspects = new ArrayList<CmisExtensionElement>();
+            for (Object aspectId : properties.get(PropertyIds.SECONDARY_OBJECT_TYPE_IDS).getValues())
+            {
+                appliedAspects.add(new CmisExtensionElementImpl(AlfrescoUtils.ALFRESCO_NAMESPACE,
+                        AlfrescoUtils.APPLIED_ASPECTS, null, (String) aspectId));
+            }
+
+            result.setExtensions(Collections.<CmisExtensionElement> singletonList(new CmisExtensionElementImpl(
+                    AlfrescoUtils.ALFRESCO_NAMESPACE, "aspects", null, appliedAspects)));
+        }
+
+        ObjectDataImpl object = new ObjectDataImpl();
+        object.setProperties(result);
+
+        return object;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void updateProperties(Object[] args)
+    {
+        Holder<String> objectId = (Holder<String>) args[1];
+        Holder<String> changeToken = (Holder<String>) args[2];
+        Properties properties = (Properties) args[3];
+
+        Map<String, PropertyData<?>> object = objects.get(objectId.getValue());
+        if (object == null)
+        {
+            throw new CmisObjectNotFoundException("Object '" + objectId.getValue() + "' is unknown!");
+        }
+
+        updates.add(properties);
+
+        for (PropertyData<?> property : properties.getPropertyList())
+        {
+            put(object, property);
+        }
+
+        if (cmisVersion == CmisVersion.CMIS_1_0)
+        {
+            setAspects(object, properties.getExtensions());
+        }
+
+        // like Alfresco, set the defaults of the added aspects
+        for (Object aspectId : object.get(PropertyIds.SECONDARY_OBJECT_TYPE_IDS).getValues())
+        {
+            TypeDefinition aspect = types.get(aspectId);
+            if (aspect == null)
+            {
+                continue;
+            }
+
+            for (PropertyDefinition<?> definition : aspect.getPropertyDefinitions().values())
+            {
+                List<?> defaultValue = definition.getDefaultValue();
+                if (defaultValue != null && !defaultValue.isEmpty() && !object.containsKey(definition.getId()))
+                {
+                    put(object, new PropertyStringImpl(definition.getId(), (String) defaultValue.get(0)));
+                }
+            }
+        }
+
+        String token = nextChangeToken();
+        put(object, new PropertyStringImpl(PropertyIds.CHANGE_TOKEN, token));
+        if (changeToken != null)
+        {
+            changeToken.setValue(token);
+        }
+    }
+
+    private static void setAspects(Map<String, PropertyData<?>> object, List<CmisExtensionElement> extensions)
+    {
+        if (extensions == null)
+        {
+            return;
+        }
+
+        List<String> aspectIds = new ArrayList<String>();
+        for (Object aspectId : object.get(PropertyIds.SECONDARY_OBJECT_TYPE_IDS).getValues())
+        {
+            aspectIds.add((String) aspectId);
+        }
+
+        for (CmisExtensionElement extension : extensions)
+        {
+            if (!AlfrescoUtils.SET_ASPECTS.equals(extension.getName()))
+            {
+                continue;
+            }
+
+            for (CmisExtensionElement child : extension.getChildren())
+            {
+                if (AlfrescoUtils.ASPECTS_TO_ADD.equals(child.getName()) && !aspectIds.contains(child.getValue()))
+                {
+                    aspectIds.add(child.getValue());
+                } else if (AlfrescoUtils.ASPECTS_TO_REMOVE.equals(child.getName()))
+                {
+                    aspectIds.remove(child.getValue());
+                }
+            }
+        }
+
+        put(object, new PropertyIdImpl(PropertyIds.SECONDARY_OBJECT_TYPE_IDS, aspectIds));
+    }
+
+    /**
+     * Creates the services of the repository given in the session parameters.
+     */
+    public static class ServiceFactory extends AbstractServiceFactory
+    {
+        private AlfrescoTestRepository repository;
+
+        @Override
+        public void init(Map<String, String> parameters)
+        {
+            repository = REPOSITORIES.get(parameters.get(REPOSITORY_KEY));
+        }
+
+        public CmisService getService(CallContext context)
+        {
+            final AlfrescoTestRepository target = repository;
+            return (CmisService) Proxy.newProxyInstance(CmisService.class.getClassLoader(),
+                    new Class<?>[] { CmisService.class }, new InvocationHandler()
+                    {
+                        public Object invoke(Object proxy, Method method, Object[] args)
+                        {
+                            return target.invoke(method.getName(), args);
+                        }
+                    });
+        }
+
+        @Override
+        public File getTempDirectory()
+        {
+            return new File(System.getProperty("java.io.tmpdir"));
+        }
+    }
+}